@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
+import ru.yandex.practicum.filmorate.dao.MpaDbStorage;
+import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MPA;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Benchmark)
+public class DataSourceState {
+
+    @Param({"default", "prod", "prod,h2-mem"})
+    public String profiles;
+
+    @Param({"1000"})
+    public int films;
+
+    @Param({"1000"})
+    public int users;
+
+    FilmStorage filmStorage;
+    UserStorage userStorage;
+    private HikariDataSource dataSource;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("filmorate-benchmark");
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        for (String profile : profiles.split(",")) {
+            if (!"default".equals(profile)) {
+                properties.putAll(PropertiesLoaderUtils.loadProperties(
+                        new ClassPathResource("application-" + profile + ".properties")));
+            }
+        }
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(properties.getProperty("spring.datasource.url")
+                .replace("./db/", directory.toAbsolutePath() + "/")
+                .replace("mem:filmorate", "mem:" + directory.getFileName()));
+        dataSource.setUsername(properties.getProperty("spring.datasource.username"));
+        dataSource.setPassword(properties.getProperty("spring.datasource.password"));
+        new Binder(new MapConfigurationPropertySource(properties))
+                .bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        filmStorage = new FilmDbStorage(jdbcTemplate, new MpaDbStorage(jdbcTemplate), new GenreDbStorage(jdbcTemplate));
+        userStorage = new UserDbStorage(jdbcTemplate);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        new JdbcTemplate(dataSource).execute("SHUTDOWN");
+        dataSource.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    long randomFilmId() {
+        return ThreadLocalRandom.current().nextLong(1, films + 1);
+    }
+
+    long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1);
+    }
+
+    long randomOwnedUserId(ThreadParams thread) {
+        int owned = users / thread.getThreadCount();
+        return 1 + thread.getThreadIndex()
+                + (long) thread.getThreadCount() * ThreadLocalRandom.current().nextInt(owned);
+    }
+
+    private void seed() {
+        List<Film> newFilms = new ArrayList<>(films);
+        for (int i = 1; i <= films; i++) {
+            newFilms.add(Film.builder().name("Film " + i).description("Description " + i)
+                    .releaseDate(LocalDate.of(1950 + i % 70, 1 + i % 12, 1)).duration(90L + i % 60)
+                    .mpa(MPA.builder().id(1 + i % 5).build())
+                    .build());
+        }
+        filmStorage.createAll(newFilms);
+        List<User> newUsers = new ArrayList<>(users);
+        for (int i = 1; i <= users; i++) {
+            newUsers.add(User.builder().email("user" + i + "@mail.com").login("login" + i).name("User " + i)
+                    .birthday(LocalDate.of(1970 + i % 40, 1 + i % 12, 1)).build());
+        }
+        userStorage.createAll(newUsers);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Threads(16)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DataSourceWriteBenchmark {
+
+    @Benchmark
+    public void toggleLike(DataSourceState state, ThreadParams thread) {
+        long filmId = state.randomFilmId();
+        long userId = state.randomOwnedUserId(thread);
+        state.filmStorage.addLike(filmId, userId);
+        state.filmStorage.removeLike(filmId, userId);
+    }
+
+    @Benchmark
+    public void toggleFriend(DataSourceState state, ThreadParams thread) {
+        long userId = state.randomOwnedUserId(thread);
+        long friendId = state.randomUserId();
+        if (userId == friendId) {
+            return;
+        }
+        state.userStorage.addFriend(userId, friendId);
+        state.userStorage.removeFriend(userId, friendId);
+    }
+}
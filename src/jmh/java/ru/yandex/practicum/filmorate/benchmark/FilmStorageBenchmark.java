@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilmStorageBenchmark {
+
+    @Benchmark
+    public List<Film> getFilms(StorageState state) {
+        return state.filmStorage.getFilms();
+    }
+
+    @Benchmark
+    public List<Film> getFilmsPage(StorageState state) {
+        return state.filmStorage.getFilms(state.randomFilmId(), 50);
+    }
+
+    @Benchmark
+    public Film findFilmById(StorageState state) {
+        return state.filmStorage.findFilmById(state.randomFilmId());
+    }
+
+    @Benchmark
+    public List<Film> getPopular(StorageState state) {
+        return state.filmStorage.getPopular(10, null, null);
+    }
+
+    @Benchmark
+    public List<Film> getPopularByGenre(StorageState state) {
+        return state.filmStorage.getPopular(10, 3, null);
+    }
+
+    @Benchmark
+    public void likeAndUnlike(StorageState state) {
+        long filmId = state.randomFilmId();
+        long userId = state.randomWriterId();
+        state.filmStorage.addLike(filmId, userId);
+        state.filmStorage.removeLike(filmId, userId);
+    }
+}
@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
+import ru.yandex.practicum.filmorate.dao.MpaDbStorage;
+import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MPA;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.CachingFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.InMemoryGenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.InMemoryMpaStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Benchmark)
+public class StorageState {
+    private static final int BATCH_SIZE = 1000;
+    private static final int WRITERS = 64;
+
+    @Param({"db", "db-cached", "in-memory"})
+    public String storage;
+
+    @Param({"10000"})
+    public int films;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"50"})
+    public int friendsPerUser;
+
+    @Param({"20"})
+    public int likesPerUser;
+
+    FilmStorage filmStorage;
+    UserStorage userStorage;
+    private HikariDataSource dataSource;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("in-memory".equals(storage)) {
+            InMemoryFilmStorage inMemoryFilmStorage = new InMemoryFilmStorage(new InMemoryMpaStorage(),
+                    new InMemoryGenreStorage());
+            filmStorage = inMemoryFilmStorage;
+            userStorage = new InMemoryUserStorage(inMemoryFilmStorage);
+        } else {
+            dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            FilmStorage filmDbStorage = new FilmDbStorage(jdbcTemplate, new MpaDbStorage(jdbcTemplate),
+                    new GenreDbStorage(jdbcTemplate));
+            filmStorage = "db-cached".equals(storage)
+                    ? new CachingFilmStorage(filmDbStorage, films, Duration.ofMinutes(10))
+                    : filmDbStorage;
+            userStorage = new UserDbStorage(jdbcTemplate);
+        }
+        seed(new Random(42));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    long randomFilmId() {
+        return ThreadLocalRandom.current().nextLong(1, films + 1);
+    }
+
+    long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1);
+    }
+
+    long randomWriterId() {
+        return users + ThreadLocalRandom.current().nextLong(1, WRITERS + 1);
+    }
+
+    private void seed(Random random) {
+        List<Film> newFilms = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= films; i++) {
+            newFilms.add(Film.builder().name("Film " + i).description("Description " + i)
+                    .releaseDate(LocalDate.of(1950 + i % 70, 1 + i % 12, 1)).duration(90L + i % 60)
+                    .mpa(MPA.builder().id(1 + i % 5).build())
+                    .genres(List.of(new Genre(1 + i % 6, null)))
+                    .build());
+            if (newFilms.size() == BATCH_SIZE || i == films) {
+                filmStorage.createAll(newFilms);
+                newFilms = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        List<User> newUsers = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= users + WRITERS; i++) {
+            newUsers.add(User.builder().email("user" + i + "@mail.com").login("login" + i).name("User " + i)
+                    .birthday(LocalDate.of(1970 + i % 40, 1 + i % 12, 1)).build());
+            if (newUsers.size() == BATCH_SIZE || i == users + WRITERS) {
+                userStorage.createAll(newUsers);
+                newUsers = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        int fanOut = Math.min(friendsPerUser, users - 1);
+        for (long userId = 1; userId <= users; userId++) {
+            Set<Long> friends = new HashSet<>();
+            while (friends.size() < fanOut) {
+                long friendId = 1 + random.nextInt(users);
+                if (friendId != userId && friends.add(friendId)) {
+                    userStorage.addFriend(userId, friendId);
+                }
+            }
+        }
+        List<List<Long>> likers = new ArrayList<>(films);
+        for (int i = 0; i < films; i++) {
+            likers.add(new ArrayList<>());
+        }
+        for (long userId = 1; userId <= users; userId++) {
+            for (int i = 0; i < likesPerUser; i++) {
+                likers.get(skewedFilmIndex(random)).add(userId);
+            }
+        }
+        for (int i = 0; i < films; i++) {
+            if (!likers.get(i).isEmpty()) {
+                filmStorage.applyLikes(i + 1, likers.get(i), List.of());
+            }
+        }
+    }
+
+    private int skewedFilmIndex(Random random) {
+        double sample = random.nextDouble();
+        return (int) (sample * sample * films);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserStorageBenchmark {
+
+    @Benchmark
+    public User findUserById(StorageState state) {
+        return state.userStorage.findUserById(state.randomUserId());
+    }
+
+    @Benchmark
+    public List<User> getFriends(StorageState state) {
+        return state.userStorage.getFriends(state.randomUserId());
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends(StorageState state) {
+        return state.userStorage.getCommonFriends(state.randomUserId(), state.randomUserId());
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class EndpointStats {
+    private long[] latencies = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos, boolean success) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = nanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    void merge(EndpointStats other) {
+        if (size + other.size > latencies.length) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, size + other.size));
+        }
+        System.arraycopy(other.latencies, 0, latencies, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    long requests() {
+        return size;
+    }
+
+    Map<String, Object> report(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", size);
+        report.put("errors", errors);
+        report.put("throughputPerSecond", round(size / seconds));
+        report.put("p50Ms", millis(percentile(sorted, 0.50)));
+        report.put("p95Ms", millis(percentile(sorted, 0.95)));
+        report.put("p99Ms", millis(percentile(sorted, 0.99)));
+        report.put("maxMs", millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+        return report;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
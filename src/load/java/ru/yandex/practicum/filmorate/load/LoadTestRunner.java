@@ -0,0 +1,235 @@
+package ru.yandex.practicum.filmorate.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoadTestRunner {
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong films = new AtomicLong();
+    private final String baseUrl;
+
+    private LoadTestRunner(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("load.concurrency", 16);
+        int warmupSeconds = Integer.getInteger("load.warmup", 5);
+        int durationSeconds = Integer.getInteger("load.duration", 30);
+        int seedUsers = Integer.getInteger("load.users", 200);
+        int seedFilms = Integer.getInteger("load.films", 500);
+        File output = new File(System.getProperty("load.output", "target/load-test-report.json"));
+
+        ConfigurableApplicationContext context = SpringApplication.run(FilmorateApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=WARN");
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadTestRunner runner = new LoadTestRunner("http://localhost:" + port);
+            runner.seed(seedUsers, seedFilms);
+            Map<String, Object> report = runner.run(concurrency, warmupSeconds, durationSeconds);
+            File parent = output.getAbsoluteFile().getParentFile();
+            if (!parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Не удалось создать каталог " + parent);
+            }
+            MAPPER.writeValue(output, report);
+            System.out.println("Отчёт нагрузочного теста записан в " + output.getAbsolutePath());
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    private void seed(int userCount, int filmCount) throws Exception {
+        for (int i = 0; i < userCount; i++) {
+            createUser(new EndpointStats());
+        }
+        for (int i = 0; i < filmCount; i++) {
+            createFilm(new EndpointStats());
+        }
+        for (long userId = 1; userId <= users.get(); userId++) {
+            for (int i = 0; i < 10; i++) {
+                send("PUT", "/users/" + userId + "/friends/" + randomUser(), null, new EndpointStats());
+                send("PUT", "/films/" + randomFilm() + "/like/" + userId, null, new EndpointStats());
+            }
+        }
+    }
+
+    private Map<String, Object> run(int concurrency, int warmupSeconds, int durationSeconds) throws Exception {
+        Instant startedAt = Instant.now();
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long deadline = measureFrom + Duration.ofSeconds(durationSeconds).toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<Map<String, EndpointStats>>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(executor.submit(() -> work(measureFrom, deadline)));
+        }
+        Map<String, EndpointStats> total = new TreeMap<>();
+        for (Future<Map<String, EndpointStats>> worker : workers) {
+            worker.get().forEach((endpoint, stats) ->
+                    total.computeIfAbsent(endpoint, key -> new EndpointStats()).merge(stats));
+        }
+        executor.shutdown();
+
+        EndpointStats overall = new EndpointStats();
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        total.forEach((endpoint, stats) -> {
+            overall.merge(stats);
+            endpoints.put(endpoint, stats.report(durationSeconds));
+        });
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("concurrency", concurrency);
+        report.put("warmupSeconds", warmupSeconds);
+        report.put("durationSeconds", durationSeconds);
+        report.put("overall", overall.report(durationSeconds));
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private Map<String, EndpointStats> work(long measureFrom, long deadline) throws Exception {
+        Map<String, EndpointStats> stats = new TreeMap<>();
+        while (System.nanoTime() < deadline) {
+            boolean measured = System.nanoTime() >= measureFrom;
+            int dice = ThreadLocalRandom.current().nextInt(100);
+            if (dice < 22) {
+                request("GET", "/films/popular?count=10", "GET /films/popular", null, stats, measured);
+            } else if (dice < 42) {
+                request("GET", "/films/" + randomFilm(), "GET /films/{id}", null, stats, measured);
+            } else if (dice < 52) {
+                request("GET", "/users/" + randomUser() + "/friends", "GET /users/{id}/friends", null, stats,
+                        measured);
+            } else if (dice < 57) {
+                request("GET", "/users/" + randomUser() + "/friends/common/" + randomUser(),
+                        "GET /users/{id}/friends/common/{otherId}", null, stats, measured);
+            } else if (dice < 72) {
+                request("PUT", "/films/" + randomFilm() + "/like/" + randomUser(), "PUT /films/{id}/like/{userId}",
+                        null, stats, measured);
+            } else if (dice < 77) {
+                request("DELETE", "/films/" + randomFilm() + "/like/" + randomUser(),
+                        "DELETE /films/{id}/like/{userId}", null, stats, measured);
+            } else if (dice < 87) {
+                request("PUT", "/users/" + randomUser() + "/friends/" + randomUser(),
+                        "PUT /users/{id}/friends/{friendId}", null, stats, measured);
+            } else if (dice < 91) {
+                createUser(endpoint(stats, "POST /users", measured));
+            } else if (dice < 95) {
+                createFilm(endpoint(stats, "POST /films", measured));
+            } else if (dice < 97) {
+                request("PUT", "/films", "PUT /films", film(randomFilm()), stats, measured);
+            } else if (dice < 99) {
+                request("PUT", "/users", "PUT /users", user(randomUser()), stats, measured);
+            } else {
+                request("GET", "/films?limit=50&afterId=" + randomFilm(), "GET /films?limit", null, stats,
+                        measured);
+            }
+        }
+        return stats;
+    }
+
+    private void request(String method, String path, String endpoint, Map<String, Object> body,
+                         Map<String, EndpointStats> stats, boolean measured) throws Exception {
+        send(method, path, body, endpoint(stats, endpoint, measured));
+    }
+
+    private EndpointStats endpoint(Map<String, EndpointStats> stats, String endpoint, boolean measured) {
+        return measured ? stats.computeIfAbsent(endpoint, key -> new EndpointStats()) : new EndpointStats();
+    }
+
+    private void createUser(EndpointStats stats) throws Exception {
+        JsonNode created = send("POST", "/users", user(null), stats);
+        if (created != null) {
+            users.accumulateAndGet(created.get("id").asLong(), Math::max);
+        }
+    }
+
+    private void createFilm(EndpointStats stats) throws Exception {
+        JsonNode created = send("POST", "/films", film(null), stats);
+        if (created != null) {
+            films.accumulateAndGet(created.get("id").asLong(), Math::max);
+        }
+    }
+
+    private JsonNode send(String method, String path, Map<String, Object> body, EndpointStats stats)
+            throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)));
+        }
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        boolean success = response.statusCode() / 100 == 2;
+        stats.record(System.nanoTime() - start, success);
+        return success && body != null ? MAPPER.readTree(response.body()) : null;
+    }
+
+    private Map<String, Object> user(Long id) {
+        long suffix = id == null ? ThreadLocalRandom.current().nextLong(1_000_000_000L) : id;
+        Map<String, Object> user = new LinkedHashMap<>();
+        if (id != null) {
+            user.put("id", id);
+        }
+        user.put("login", "user" + suffix);
+        user.put("name", "User " + suffix);
+        user.put("email", "user" + suffix + "@mail.ru");
+        user.put("birthday", "1990-0" + (1 + suffix % 9) + "-1" + suffix % 10);
+        return user;
+    }
+
+    private Map<String, Object> film(Long id) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> film = new LinkedHashMap<>();
+        if (id != null) {
+            film.put("id", id);
+        }
+        film.put("name", "Film " + random.nextInt(1_000_000));
+        film.put("description", "Load test film");
+        film.put("releaseDate", (1960 + random.nextInt(60)) + "-0" + (1 + random.nextInt(9)) + "-15");
+        film.put("duration", 60 + random.nextInt(120));
+        film.put("mpa", Map.of("id", 1 + random.nextInt(5)));
+        film.put("genres", List.of(Map.of("id", 1 + random.nextInt(6))));
+        return film;
+    }
+
+    private long randomUser() {
+        return 1 + ThreadLocalRandom.current().nextLong(Math.max(1, users.get()));
+    }
+
+    private long randomFilm() {
+        return 1 + ThreadLocalRandom.current().nextLong(Math.max(1, films.get()));
+    }
+}
@@ -1,28 +1,48 @@
 package ru.yandex.practicum.filmorate.controllers;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
 import ru.yandex.practicum.filmorate.model.ErrorResponse;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.service.film.FilmService;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.List;
 
 @Slf4j
 @RestController
 @RequestMapping("/films")
 public class FilmController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public FilmController(FilmService filmService) {
+    public FilmController(FilmService filmService, ObjectMapper objectMapper) {
         this.filmService = filmService;
+        this.objectMapper = objectMapper.copy().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
 
@@ -32,6 +52,31 @@ public class FilmController {
         return filmService.getFilms();
     }
 
+    @GetMapping(params = "limit")
+    public Page<Film> getFilmsPage(@RequestParam(defaultValue = "0") long afterId, @RequestParam int limit) {
+        log.debug("Входящий запрос на получение {} фильмов после фильма с id = {}", limit, afterId);
+        return filmService.getFilms(afterId, limit);
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportFilms() {
+        log.debug("Входящий запрос на выгрузку каталога фильмов");
+        ObjectWriter writer = objectMapper.writerFor(Film.class);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            filmService.exportFilms(film -> {
+                try {
+                    writer.writeValue(out, film);
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     @GetMapping("/{id}")
     public Film getFilm(@PathVariable Long id) throws NotFoundException {
         log.debug("Входящий запрос на получение фильма по id = {}", id);
@@ -40,9 +85,26 @@ public class FilmController {
 
 
     @GetMapping("/popular")
-    public Collection<Film> getPopular(@RequestParam(defaultValue = "10") int count) {
-        log.debug("Входящий запрос на получение первых {} популярных фильмов", count);
-        return filmService.getPopular(count);
+    public Collection<Film> getPopular(@RequestParam(defaultValue = "10") int count,
+                                       @RequestParam(required = false) Integer genreId,
+                                       @RequestParam(required = false) Integer year) {
+        log.debug("Входящий запрос на получение первых {} популярных фильмов (жанр = {}, год = {})",
+                count, genreId, year);
+        return filmService.getPopular(count, genreId, year);
+    }
+
+    @GetMapping("/search")
+    public Collection<Film> search(@RequestParam String query,
+                                   @RequestParam(defaultValue = "title,description") String by,
+                                   @RequestParam(defaultValue = "20") int limit) {
+        log.debug("Входящий запрос на поиск фильмов по запросу '{}' в полях {}", query, by);
+        return filmService.search(query, by, limit);
+    }
+
+    @PostMapping("/search/rebuild")
+    public int rebuildSearchIndex() {
+        log.debug("Входящий запрос на перестроение поискового индекса фильмов");
+        return filmService.rebuildSearchIndex();
     }
 
     @PostMapping
@@ -52,6 +114,18 @@ public class FilmController {
         return filmService.create(film);
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<BatchItemResult> createFilms(@RequestBody List<Film> films) {
+        log.debug("Входящий запрос на пакетное создание {} фильмов", films.size());
+        return filmService.createAll(films.iterator());
+    }
+
+    @PostMapping(value = "/batch", consumes = NDJSON)
+    public List<BatchItemResult> createFilmsStream(InputStream body) {
+        log.debug("Входящий запрос на пакетное создание фильмов из потока");
+        return filmService.createAll(new NdjsonIterator<>(body, objectMapper.readerFor(Film.class)));
+    }
+
     @PutMapping
     public Film updateFilm(@Validated @RequestBody Film film) throws NotFoundException {
         log.debug("Входящий запрос на редактирование фильма");
@@ -83,6 +157,18 @@ public class FilmController {
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleValidation(final ValidationException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleBadParameter(final MethodArgumentTypeMismatchException e) {
+        return new ErrorResponse("Некорректное значение параметра " + e.getName() + ": " + e.getValue());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleServerError(final RuntimeException e) {
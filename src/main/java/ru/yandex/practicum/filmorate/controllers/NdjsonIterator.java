@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+class NdjsonIterator<T> implements Iterator<T> {
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private String line;
+    private int lineNumber;
+
+    NdjsonIterator(InputStream body, ObjectReader objectReader) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.objectReader = objectReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (line == null) {
+                String next = reader.readLine();
+                if (next == null) {
+                    return false;
+                }
+                lineNumber++;
+                if (!next.isBlank()) {
+                    line = next;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String current = line;
+        line = null;
+        try {
+            return objectReader.readValue(current);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Строка " + lineNumber + ": " + e.getOriginalMessage());
+        }
+    }
+}
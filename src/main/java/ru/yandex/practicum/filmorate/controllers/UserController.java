@@ -1,27 +1,40 @@
 package ru.yandex.practicum.filmorate.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
 import ru.yandex.practicum.filmorate.model.ErrorResponse;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.user.UserService;
 
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
 
 
 @Slf4j
 @RestController
 @RequestMapping("/users")
 public class UserController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -30,6 +43,11 @@ public class UserController {
         return userService.getAll();
     }
 
+    @GetMapping(params = "limit")
+    public Page<User> getUsersPage(@RequestParam(defaultValue = "0") long afterId, @RequestParam int limit) {
+        log.debug("Входящий запрос на получение {} пользователей после пользователя с id = {}", limit, afterId);
+        return userService.getAll(afterId, limit);
+    }
 
     @PostMapping
     public User create(@RequestBody @Validated User user) throws RuntimeException {
@@ -37,6 +55,18 @@ public class UserController {
         return userService.create(user);
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<BatchItemResult> createUsers(@RequestBody List<User> users) {
+        log.debug("Входящий запрос на пакетное создание {} пользователей", users.size());
+        return userService.createAll(users.iterator());
+    }
+
+    @PostMapping(value = "/batch", consumes = NDJSON)
+    public List<BatchItemResult> createUsersStream(InputStream body) {
+        log.debug("Входящий запрос на пакетное создание пользователей из потока");
+        return userService.createAll(new NdjsonIterator<>(body, objectMapper.readerFor(User.class)));
+    }
+
     @PutMapping
     public User update(@RequestBody @Validated User user) throws RuntimeException {
         log.debug("Входящий запрос на редактирование пользователя{}", user);
@@ -69,6 +99,19 @@ public class UserController {
         return userService.getFriendsUser(id);
     }
 
+    @GetMapping("/{id}/friends/count")
+    public int getFriendsCount(@PathVariable Long id) throws RuntimeException {
+        log.debug("Входящий запрос на получение количества друзей пользователя с id = {}", id);
+        return userService.getFriendsCount(id);
+    }
+
+    @GetMapping("/{id}/friends/suggestions")
+    public Collection<User> getFriendSuggestions(@PathVariable Long id, @RequestParam(defaultValue = "10") int limit)
+            throws RuntimeException {
+        log.debug("Входящий запрос на получение {} рекомендаций друзей для пользователя с id = {}", limit, id);
+        return userService.getFriendSuggestions(id, limit);
+    }
+
     @GetMapping("/{id}/friends/common/{otherId}")
     public Collection<User> getCommonFriends(@PathVariable Long id, @PathVariable Long otherId)
             throws RuntimeException {
@@ -77,12 +120,31 @@ public class UserController {
         return userService.getCommonFriends(id, otherId);
     }
 
+    @GetMapping("/{id}/recommendations")
+    public Collection<Film> getRecommendations(@PathVariable Long id, @RequestParam(defaultValue = "10") int count)
+            throws RuntimeException {
+        log.debug("Входящий запрос на получение {} рекомендованных фильмов для пользователя с id = {}", count, id);
+        return userService.getRecommendations(id, count);
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleUserNotFound(final NotFoundException e) {
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleValidation(final ValidationException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleBadParameter(final MethodArgumentTypeMismatchException e) {
+        return new ErrorResponse("Некорректное значение параметра " + e.getName() + ": " + e.getValue());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleServerError(final RuntimeException e) {
@@ -2,175 +2,351 @@ package ru.yandex.practicum.filmorate.dao;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Repository
 @Qualifier
+@Profile("!in-memory")
 public class FilmDbStorage implements FilmStorage {
+    private static final String FILM_COLUMNS = "SELECT f.film_id, f.name, f.description, f.release_date, f.duration, " +
+            "f.rate, f.age_id, " +
+            "GROUP_CONCAT(DISTINCT g.genre_id ORDER BY g.genre_id ASC SEPARATOR ',') AS genre_ids ";
+    private static final String GENRE_JOIN = "LEFT JOIN FilmGenre AS fg ON f.film_id = fg.film_id " +
+            "LEFT JOIN Genre AS g ON fg.genre_id = g.genre_id ";
+    private static final String FILM_SELECT = FILM_COLUMNS + "FROM Film AS f " + GENRE_JOIN;
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final int IN_CLAUSE_LIMIT = 1000;
+
     private final JdbcTemplate jdbcTemplate;
     private final MpaStorage mpaStorage;
     private final GenreStorage genreStorage;
+    private final SimpleJdbcInsert filmInsert;
 
     @Autowired
     public FilmDbStorage(JdbcTemplate jdbcTemplate, MpaStorage mpaStorage, GenreStorage genreStorage) {
         this.jdbcTemplate = jdbcTemplate;
         this.mpaStorage = mpaStorage;
         this.genreStorage = genreStorage;
+        this.filmInsert = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("Film")
+                .usingColumns("name", "description", "release_date", "duration", "age_id")
+                .usingGeneratedKeyColumns("film_id");
     }
 
     @Override
     public List<Film> getFilms() {
-        String sql = "SELECT f.film_id, f.name, f.description, f.release_date, f.duration, f.rate, f.age_id, " +
-                "GROUP_CONCAT(DISTINCT g.genre_id ORDER BY g.genre_id ASC SEPARATOR ',') AS genre_ids " +
-                "FROM Film AS f " +
-                "LEFT JOIN FilmGenre AS fg ON f.film_id = fg.film_id " +
-                "LEFT JOIN Genre AS g ON fg.genre_id = g.genre_id " +
+        String sql = FILM_SELECT +
                 "GROUP BY f.film_id " +
                 "ORDER BY f.film_id ASC";
-        List<Film> films = new ArrayList<>();
-        Map<Long, List<Genre>> genreMap = new HashMap<>();
-        SqlRowSet rs = jdbcTemplate.queryForRowSet(sql);
-        while (rs.next()) {
-            long filmId = rs.getLong("film_id");
-            List<Genre> genres = new ArrayList<>();
-            String genreIdsString = rs.getString("genre_ids");
-            if (genreIdsString != null) {
-                String[] genreIds = genreIdsString.split(",");
-                for (String genreId : genreIds) {
-                    genres.add(genreStorage.findGenreById(Integer.parseInt(genreId)));
-                }
+        return jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs));
+    }
+
+    @Override
+    public List<Film> getFilms(long afterId, int limit) {
+        String sql = FILM_SELECT +
+                "WHERE f.film_id IN (SELECT film_id FROM Film WHERE film_id > ? ORDER BY film_id ASC LIMIT ?) " +
+                "GROUP BY f.film_id " +
+                "ORDER BY f.film_id ASC";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs), afterId, limit);
+    }
+
+    @Override
+    public void streamFilms(Consumer<Film> consumer) {
+        String sql = FILM_SELECT +
+                "GROUP BY f.film_id " +
+                "ORDER BY f.film_id ASC";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(makeFilm(rs)));
+    }
+
+    @Override
+    public List<Film> findFilmsByIds(long[] ids) {
+        List<Film> films = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += IN_CLAUSE_LIMIT) {
+            int to = Math.min(from + IN_CLAUSE_LIMIT, ids.length);
+            Object[] params = new Object[to - from];
+            for (int i = from; i < to; i++) {
+                params[i - from] = ids[i];
             }
-            genreMap.put(filmId, genres);
-            Film film = Film.builder()
-                    .id(filmId)
-                    .name(rs.getString("name"))
-                    .description(rs.getString("description"))
-                    .releaseDate(Objects.requireNonNull(rs.getDate("release_date")).toLocalDate())
-                    .duration(rs.getLong("duration"))
-                    .rate(rs.getInt("rate"))
-                    .mpa(mpaStorage.findMPAById(rs.getInt("age_id")))
-                    .build();
-            films.add(film);
-        }
-        for (Film film : films) {
-            film.setGenres(genreMap.get(film.getId()));
+            String sql = String.format(FILM_SELECT +
+                            "WHERE f.film_id IN (%s) GROUP BY f.film_id ORDER BY f.film_id ASC",
+                    String.join(", ", Collections.nCopies(params.length, "?")));
+            films.addAll(jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs), params));
         }
         return films;
     }
 
     @Override
+    public List<Film> getPopular(int count, Integer genreId, Integer year) {
+        StringBuilder filter = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        if (genreId != null) {
+            filter.append("AND EXISTS (SELECT 1 FROM FilmGenre AS pg " +
+                    "WHERE pg.film_id = p.film_id AND pg.genre_id = ?) ");
+            params.add(genreId);
+        }
+        if (year != null) {
+            filter.append("AND p.release_date >= ? AND p.release_date < ? ");
+            params.add(LocalDate.of(year, 1, 1));
+            params.add(LocalDate.of(year + 1, 1, 1));
+        }
+        params.add(count);
+        String sql = FILM_SELECT +
+                "WHERE f.film_id IN (SELECT p.film_id FROM Film AS p WHERE TRUE " + filter +
+                "ORDER BY p.rate DESC, p.film_id ASC LIMIT ?) " +
+                "GROUP BY f.film_id " +
+                "ORDER BY f.rate DESC, f.film_id ASC";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs), params.toArray());
+    }
+
+    @Override
+    public List<Film> getRecommendations(long userId, int neighbours, int count) {
+        String sql = FILM_COLUMNS +
+                "FROM (SELECT l.film_id, SUM(s.overlap) AS score " +
+                "FROM (SELECT o.user_id, COUNT(*) AS overlap FROM Film_like AS m " +
+                "JOIN Film_like AS o ON o.film_id = m.film_id " +
+                "WHERE m.user_id = ? AND o.user_id <> m.user_id " +
+                "GROUP BY o.user_id ORDER BY overlap DESC, o.user_id ASC LIMIT ?) AS s " +
+                "JOIN Film_like AS l ON l.user_id = s.user_id " +
+                "WHERE NOT EXISTS (SELECT 1 FROM Film_like AS mine " +
+                "WHERE mine.user_id = ? AND mine.film_id = l.film_id) " +
+                "GROUP BY l.film_id ORDER BY score DESC, l.film_id ASC LIMIT ?) AS r " +
+                "JOIN Film AS f ON f.film_id = r.film_id " +
+                GENRE_JOIN +
+                "GROUP BY f.film_id, r.score " +
+                "ORDER BY r.score DESC, f.film_id ASC";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs), userId, neighbours, userId, count);
+    }
+
+    @Override
+    @Transactional
     public Film create(Film film) {
-        SimpleJdbcInsert jdbcInsert = new SimpleJdbcInsert(jdbcTemplate);
-        jdbcInsert.withTableName("Film").usingGeneratedKeyColumns("film_id");
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("name", film.getName());
         parameters.put("description", film.getDescription());
         parameters.put("release_date", film.getReleaseDate());
         parameters.put("duration", film.getDuration());
-        parameters.put("rate", film.getRate());
         parameters.put("age_id", film.getMpa().getId());
-        Number key = jdbcInsert.executeAndReturnKey(new MapSqlParameterSource(parameters));
+        Number key = filmInsert.executeAndReturnKey(new MapSqlParameterSource(parameters));
         film.setId(key.longValue());
+        film.setRate(0);
+        saveGenres(List.of(film));
+        return film;
+    }
+
+    @Override
+    @Transactional
+    public List<Film> createAll(List<Film> films) {
+        String sql = "INSERT INTO Film (name, description, release_date, duration, age_id) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql, new String[]{"film_id"})) {
+                for (Film film : films) {
+                    ps.setString(1, film.getName());
+                    ps.setString(2, film.getDescription());
+                    ps.setObject(3, film.getReleaseDate());
+                    ps.setObject(4, film.getDuration());
+                    ps.setInt(5, film.getMpa().getId());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Film film : films) {
+                        keys.next();
+                        film.setId(keys.getLong(1));
+                        film.setRate(0);
+                    }
+                }
+            }
+            return null;
+        });
+        saveGenres(films);
+        return films;
+    }
 
+    @Override
+    @Transactional
+    public Film updateFilm(Film film) {
+        String sql = "UPDATE Film SET name=?, description=?, release_date=?, duration=?, age_id=? WHERE film_id=?";
+        int updated = jdbcTemplate.update(sql, film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), film.getMpa().getId(), film.getId());
+        if (updated == 0) {
+            throw new NotFoundException("Фильм не найден.");
+        }
+        String sqlRate = "SELECT rate FROM Film WHERE film_id=?";
+        film.setRate(jdbcTemplate.queryForObject(sqlRate, Integer.class, film.getId()));
         if (film.getGenres() != null) {
-            String sql = "INSERT INTO FilmGenre (film_id, genre_id) VALUES (?, ?)";
-            film.getGenres().forEach(genre -> jdbcTemplate.update(sql, film.getId(), genre.getId()));
-        } else {
-            film.setGenres(new ArrayList<>());
+            String sqlDeleteGenres = "DELETE FROM FilmGenre WHERE film_id=?";
+            jdbcTemplate.update(sqlDeleteGenres, film.getId());
+            saveGenres(List.of(film));
         }
         return film;
     }
 
     @Override
-    public Film updateFilm(Film film) {
-        String sqlId = "SELECT film_id FROM Film ORDER BY film_id DESC LIMIT 1";
-        SqlRowSet sqlRowSet = jdbcTemplate.queryForRowSet(sqlId);
-        sqlRowSet.next();
-        if (film.getId() > sqlRowSet.getInt("film_id") || film.getId() <= 0) {
+    public Film findFilmById(long id) {
+        String sql = FILM_SELECT +
+                "WHERE f.film_id = ? " +
+                "GROUP BY f.film_id";
+        List<Film> films = jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs), id);
+        if (films.isEmpty()) {
             throw new NotFoundException("Фильм не найден.");
-        } else {
-            String sql = "UPDATE Film SET name=?, description=?, release_date=?, duration=?, rate=?, age_id=? WHERE film_id=?";
-            jdbcTemplate.update(sql, film.getName(), film.getDescription(), film.getReleaseDate(), film.getDuration(),
-                    film.getRate(), film.getMpa().getId(), film.getId());
-            if (film.getGenres() != null) {
-                Set<Integer> updatedGenreIds = new HashSet<>();
-                film.getGenres().forEach(g -> updatedGenreIds.add(g.getId()));
-
-                Set<Integer> existingGenreIds = new HashSet<>();
-                String sqlGenreIds = "SELECT genre_id FROM FilmGenre WHERE film_id=?";
-                SqlRowSet rsGenreIds = jdbcTemplate.queryForRowSet(sqlGenreIds, film.getId());
-                while (rsGenreIds.next()) {
-                    existingGenreIds.add(rsGenreIds.getInt("genre_id"));
-                }
-
-                Set<Integer> genreIdsToRemove = new HashSet<>(existingGenreIds);
-                genreIdsToRemove.removeAll(updatedGenreIds);
+        }
+        return films.get(0);
+    }
 
-                Set<Integer> genreIdsToAdd = new HashSet<>(updatedGenreIds);
-                genreIdsToAdd.removeAll(existingGenreIds);
+    @Override
+    @Transactional
+    public void addLike(long filmId, long userId) {
+        String sql = "INSERT INTO Film_like (user_id, film_id) VALUES (?, ?)";
+        try {
+            jdbcTemplate.update(sql, userId, filmId);
+        } catch (DuplicateKeyException e) {
+            return;
+        }
+        String sqlRate = "UPDATE Film SET rate = rate + 1 WHERE film_id=?";
+        jdbcTemplate.update(sqlRate, filmId);
+    }
 
-                if (!genreIdsToRemove.isEmpty()) {
-                    String sqlDeleteGenres = "DELETE FROM FilmGenre WHERE film_id=? AND genre_id IN (%s)";
-                    String genreIdsToRemoveStr = genreIdsToRemove.stream().map(String::valueOf).collect(Collectors.joining(", "));
-                    String formattedSql = String.format(sqlDeleteGenres, genreIdsToRemoveStr);
-                    jdbcTemplate.update(formattedSql, film.getId());
-                }
+    @Override
+    @Transactional
+    public void removeLike(long filmId, long userId) {
+        String sql = "DELETE FROM Film_like WHERE user_id=? AND film_id=?";
+        if (jdbcTemplate.update(sql, userId, filmId) == 0) {
+            return;
+        }
+        String sqlRate = "UPDATE Film SET rate = rate - 1 WHERE film_id=?";
+        jdbcTemplate.update(sqlRate, filmId);
+    }
 
-                if (!genreIdsToAdd.isEmpty()) {
-                    String sqlInsertGenre = "INSERT INTO FilmGenre VALUES (?, ?)";
-                    genreIdsToAdd.forEach(genreId -> jdbcTemplate.update(sqlInsertGenre, film.getId(), genreId));
-                }
+    @Override
+    @Transactional
+    public void applyLikes(long filmId, Collection<Long> likedBy, Collection<Long> unlikedBy) {
+        int delta = 0;
+        if (!likedBy.isEmpty()) {
+            String sql = "INSERT INTO Film_like (user_id, film_id) " +
+                    "SELECT CAST(? AS INT), CAST(? AS INT) " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM Film_like WHERE user_id = ? AND film_id = ?)";
+            delta += sum(jdbcTemplate.batchUpdate(sql, likedBy, likedBy.size(), (ps, userId) -> {
+                ps.setLong(1, userId);
+                ps.setLong(2, filmId);
+                ps.setLong(3, userId);
+                ps.setLong(4, filmId);
+            }));
+        }
+        if (!unlikedBy.isEmpty()) {
+            String sql = "DELETE FROM Film_like WHERE user_id=? AND film_id=?";
+            delta -= sum(jdbcTemplate.batchUpdate(sql, unlikedBy, unlikedBy.size(), (ps, userId) -> {
+                ps.setLong(1, userId);
+                ps.setLong(2, filmId);
+            }));
+        }
+        if (delta != 0) {
+            String sqlRate = "UPDATE Film SET rate = rate + ? WHERE film_id=?";
+            jdbcTemplate.update(sqlRate, delta, filmId);
+        }
+    }
 
-                List<Genre> updatedGenres = new ArrayList<>();
-                String sqlGenre = "SELECT DISTINCT genre_id FROM FilmGenre WHERE film_id=? ORDER BY genre_id ASC";
-                SqlRowSet rs = jdbcTemplate.queryForRowSet(sqlGenre, film.getId());
-                while (rs.next()) {
-                    updatedGenres.add(genreStorage.findGenreById(rs.getInt("genre_id")));
-                }
-                updatedGenres.sort(Comparator.comparingInt(Genre::getId));
-                film.setGenres(updatedGenres);
+    @Override
+    public Map<Long, Set<Long>> findLikes(Collection<Long> filmIds, Collection<Long> userIds) {
+        Map<Long, Set<Long>> likes = new HashMap<>();
+        List<Long> films = new ArrayList<>(filmIds);
+        List<Long> users = new ArrayList<>(userIds);
+        for (int filmFrom = 0; filmFrom < films.size(); filmFrom += IN_CLAUSE_LIMIT) {
+            List<Long> filmChunk = films.subList(filmFrom, Math.min(filmFrom + IN_CLAUSE_LIMIT, films.size()));
+            for (int userFrom = 0; userFrom < users.size(); userFrom += IN_CLAUSE_LIMIT) {
+                List<Long> userChunk = users.subList(userFrom, Math.min(userFrom + IN_CLAUSE_LIMIT, users.size()));
+                String sql = String.format("SELECT film_id, user_id FROM Film_like " +
+                                "WHERE film_id IN (%s) AND user_id IN (%s)",
+                        String.join(", ", Collections.nCopies(filmChunk.size(), "?")),
+                        String.join(", ", Collections.nCopies(userChunk.size(), "?")));
+                List<Object> params = new ArrayList<>(filmChunk);
+                params.addAll(userChunk);
+                jdbcTemplate.query(sql, (RowCallbackHandler) rs -> likes
+                        .computeIfAbsent(rs.getLong("film_id"), id -> new HashSet<>())
+                        .add(rs.getLong("user_id")), params.toArray());
             }
         }
-
-        return film;
+        return likes;
     }
 
-    @Override
-    public Film findFilmById(long id) {
-        String sql = "SELECT f.film_id, f.name, f.description, f.release_date, f.duration, f.rate, f.age_id, " +
-                "GROUP_CONCAT(DISTINCT g.genre_id ORDER BY g.genre_id ASC SEPARATOR ',') AS genre_ids " +
-                "FROM Film AS f " +
-                "LEFT JOIN FilmGenre AS fg ON f.film_id = fg.film_id " +
-                "LEFT JOIN Genre AS g ON fg.genre_id = g.genre_id " +
-                "WHERE f.film_id = ? " +
-                "GROUP BY f.film_id";
+    private int sum(int[][] updateCounts) {
+        int sum = 0;
+        for (int[] batch : updateCounts) {
+            for (int count : batch) {
+                sum += Math.max(count, 0);
+            }
+        }
+        return sum;
+    }
 
-        SqlRowSet rs = jdbcTemplate.queryForRowSet(sql, id);
-        if (!rs.next()) {
-            throw new NotFoundException("Фильм не найден.");
+    private void saveGenres(List<Film> films) {
+        List<long[]> filmGenres = new ArrayList<>();
+        for (Film film : films) {
+            List<Genre> savedGenres = new ArrayList<>();
+            if (film.getGenres() != null) {
+                film.getGenres().stream()
+                        .map(Genre::getId)
+                        .distinct()
+                        .sorted()
+                        .forEach(genreId -> {
+                            filmGenres.add(new long[]{film.getId(), genreId});
+                            savedGenres.add(genreStorage.findGenreById(genreId));
+                        });
+            }
+            film.setGenres(savedGenres);
+        }
+        if (filmGenres.isEmpty()) {
+            return;
         }
+        String sql = "INSERT INTO FilmGenre (film_id, genre_id) VALUES (?, ?)";
+        jdbcTemplate.batchUpdate(sql, filmGenres, filmGenres.size(), (ps, filmGenre) -> {
+            ps.setLong(1, filmGenre[0]);
+            ps.setLong(2, filmGenre[1]);
+        });
+    }
 
-        String genreIds = rs.getString("genre_ids");
+    private Film makeFilm(ResultSet rs) throws SQLException {
         List<Genre> genres = new ArrayList<>();
+        String genreIds = rs.getString("genre_ids");
         if (genreIds != null) {
-            String[] genreIdArray = genreIds.split(",");
-            for (String genreId : genreIdArray) {
-                Genre genre = genreStorage.findGenreById(Integer.parseInt(genreId));
-                genres.add(genre);
+            int genreId = 0;
+            for (int i = 0; i < genreIds.length(); i++) {
+                char c = genreIds.charAt(i);
+                if (c == ',') {
+                    genres.add(genreStorage.findGenreById(genreId));
+                    genreId = 0;
+                } else {
+                    genreId = genreId * 10 + (c - '0');
+                }
             }
+            genres.add(genreStorage.findGenreById(genreId));
         }
-
         return Film.builder()
                 .id(rs.getLong("film_id"))
                 .name(rs.getString("name"))
@@ -182,4 +358,4 @@ public class FilmDbStorage implements FilmStorage {
                 .mpa(mpaStorage.findMPAById(rs.getInt("age_id")))
                 .build();
     }
-}
\ No newline at end of file
+}
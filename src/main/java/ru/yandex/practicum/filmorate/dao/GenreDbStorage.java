@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+@Profile("!in-memory")
+public class GenreDbStorage implements GenreStorage {
+
+    public final JdbcTemplate jdbcTemplate;
+    private volatile Genres genres;
+
+    @Autowired
+    public GenreDbStorage(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        refresh();
+    }
+
+    @Override
+    public Genre findGenreById(int id) {
+        Genre[] byId = genres.byId;
+        return id > 0 && id < byId.length ? byId[id] : null;
+    }
+
+    @Override
+    public List<Genre> getGenreList() {
+        return genres.list;
+    }
+
+    @Override
+    public void refresh() {
+        String sql = "SELECT genre_id, name FROM Genre ORDER BY genre_id ASC";
+        List<Genre> list = jdbcTemplate.query(sql, (rs, rowNum) -> new Genre(rs.getInt("genre_id"),
+                rs.getString("name")));
+        int maxId = list.isEmpty() ? 0 : list.get(list.size() - 1).getId();
+        Genre[] byId = new Genre[maxId + 1];
+        for (Genre genre : list) {
+            byId[genre.getId()] = genre;
+        }
+        genres = new Genres(byId, Collections.unmodifiableList(list));
+    }
+
+    private static final class Genres {
+        private final Genre[] byId;
+        private final List<Genre> list;
+
+        private Genres(Genre[] byId, List<Genre> list) {
+            this.byId = byId;
+            this.list = list;
+        }
+    }
+}
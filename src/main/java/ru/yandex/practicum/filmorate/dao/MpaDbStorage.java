@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.MPA;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+@Profile("!in-memory")
+public class MpaDbStorage implements MpaStorage {
+    public final JdbcTemplate jdbcTemplate;
+    private volatile Ratings ratings;
+
+    @Autowired
+    public MpaDbStorage(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        refresh();
+    }
+
+    @Override
+    public MPA findMPAById(int id) {
+        MPA[] byId = ratings.byId;
+        return id > 0 && id < byId.length ? byId[id] : null;
+    }
+
+    @Override
+    public List<MPA> getMPAList() {
+        return ratings.list;
+    }
+
+    @Override
+    public void refresh() {
+        String sql = "SELECT age_id, name FROM Age_rating ORDER BY age_id ASC";
+        List<MPA> list = jdbcTemplate.query(sql, (rs, rowNum) -> new MPA(rs.getInt("age_id"),
+                rs.getString("name")));
+        int maxId = list.isEmpty() ? 0 : list.get(list.size() - 1).getId();
+        MPA[] byId = new MPA[maxId + 1];
+        for (MPA mpa : list) {
+            byId[mpa.getId()] = mpa;
+        }
+        ratings = new Ratings(byId, Collections.unmodifiableList(list));
+    }
+
+    private static final class Ratings {
+        private final MPA[] byId;
+        private final List<MPA> list;
+
+        private Ratings(MPA[] byId, List<MPA> list) {
+            this.byId = byId;
+            this.list = list;
+        }
+    }
+}
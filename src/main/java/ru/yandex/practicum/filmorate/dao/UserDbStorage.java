@@ -2,130 +2,237 @@ package ru.yandex.practicum.filmorate.dao;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendshipGraph;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import javax.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.*;
 
 @Repository
 @Qualifier
+@Profile("!in-memory")
 public class UserDbStorage implements UserStorage {
+    private static final String USER_SELECT = "SELECT u.user_id, u.email, u.login, u.name, u.birthday, " +
+            "(SELECT GROUP_CONCAT(ff.friend_id ORDER BY ff.friend_id ASC SEPARATOR ',') " +
+            "FROM Friendship AS ff WHERE ff.user_id = u.user_id AND ff.status = 'ACCEPTED') AS friend_ids, " +
+            "(SELECT GROUP_CONCAT(fl.film_id ORDER BY fl.film_id ASC SEPARATOR ',') " +
+            "FROM Film_like AS fl WHERE fl.user_id = u.user_id) AS film_ids " +
+            "FROM Users AS u ";
+    private static final UserMapper USER_MAPPER = new UserMapper();
+    private static final int IN_CLAUSE_LIMIT = 1000;
+    private static final int LOCK_STRIPES = 64;
+
     private final JdbcTemplate jdbcTemplate;
+    private final SimpleJdbcInsert userInsert;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private volatile FriendshipGraph friendships = new FriendshipGraph();
 
     @Autowired
     public UserDbStorage(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
+        this.userInsert = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("Users")
+                .usingGeneratedKeyColumns("user_id");
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void loadFriendships() {
+        String sql = "SELECT user_id, friend_id FROM Friendship WHERE status = 'ACCEPTED' " +
+                "ORDER BY user_id ASC, friend_id ASC";
+        friendships = jdbcTemplate.query(sql, (ResultSetExtractor<FriendshipGraph>) rs -> {
+            FriendshipGraph loaded = new FriendshipGraph();
+            long[] friends = new long[16];
+            int size = 0;
+            long userId = 0;
+            while (rs.next()) {
+                long nextUserId = rs.getLong("user_id");
+                if (size > 0 && nextUserId != userId) {
+                    loaded.setFriends(userId, Arrays.copyOf(friends, size));
+                    size = 0;
+                }
+                userId = nextUserId;
+                if (size == friends.length) {
+                    friends = Arrays.copyOf(friends, size * 2);
+                }
+                friends[size++] = rs.getLong("friend_id");
+            }
+            if (size > 0) {
+                loaded.setFriends(userId, Arrays.copyOf(friends, size));
+            }
+            return loaded;
+        });
     }
 
     @Override
     public List<User> getUsers() {
-        String sql = "SELECT * FROM Users";
-        return jdbcTemplate.query(sql, new UserMapper(jdbcTemplate));
+        String sql = USER_SELECT + "ORDER BY u.user_id ASC";
+        return jdbcTemplate.query(sql, USER_MAPPER);
+    }
+
+    @Override
+    public List<User> getUsers(long afterId, int limit) {
+        String sql = USER_SELECT + "WHERE u.user_id > ? ORDER BY u.user_id ASC LIMIT ?";
+        return jdbcTemplate.query(sql, USER_MAPPER, afterId, limit);
     }
 
     @Override
     public User create(User user) {
-        SimpleJdbcInsert jdbcInsert = new SimpleJdbcInsert(jdbcTemplate);
-        jdbcInsert.withTableName("Users").usingGeneratedKeyColumns("user_id");
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("login", user.getLogin());
         parameters.put("name", user.getName());
         parameters.put("email", user.getEmail());
         parameters.put("birthday", user.getBirthday());
-        Number key = jdbcInsert.executeAndReturnKey(new MapSqlParameterSource(parameters));
+        Number key = userInsert.executeAndReturnKey(new MapSqlParameterSource(parameters));
         user.setId(key.longValue());
         return user;
     }
 
+    @Override
+    @Transactional
+    public List<User> createAll(List<User> users) {
+        String sql = "INSERT INTO Users (login, name, email, birthday) VALUES (?, ?, ?, ?)";
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql, new String[]{"user_id"})) {
+                for (User user : users) {
+                    ps.setString(1, user.getLogin());
+                    ps.setString(2, user.getName());
+                    ps.setString(3, user.getEmail());
+                    ps.setObject(4, user.getBirthday());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (User user : users) {
+                        keys.next();
+                        user.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+        return users;
+    }
+
     @Override
     public User update(User user) {
-        String sqlId = "SELECT user_id FROM Users ORDER BY user_id DESC LIMIT 1";
-        SqlRowSet sqlRowSet = jdbcTemplate.queryForRowSet(sqlId);
-        sqlRowSet.next();
-        if (user.getId() > sqlRowSet.getInt("user_id") || user.getId() <= 0) {
+        String sql = "UPDATE Users SET email=?, login=?, name=?, birthday=? WHERE user_id=?";
+        int updated = jdbcTemplate.update(sql, user.getEmail(), user.getLogin(), user.getName(), user.getBirthday(),
+                user.getId());
+        if (updated == 0) {
             throw new NotFoundException("Пользователь не найден.");
         }
-        String sql = "UPDATE Users SET email=?, login=?, name=?, birthday=? WHERE user_id=?";
-        jdbcTemplate.update(sql, user.getEmail(), user.getLogin(), user.getName(), user.getBirthday(), user.getId());
         return user;
     }
 
     @Override
     public User findUserById(long id) {
-        String sqlId = "SELECT user_id FROM Users ORDER BY user_id DESC LIMIT 1";
-        SqlRowSet sqlRowSet = jdbcTemplate.queryForRowSet(sqlId);
-        sqlRowSet.next();
-        if (id > sqlRowSet.getInt("user_id") || id <= 0) {
+        String sql = USER_SELECT + "WHERE u.user_id = ?";
+        List<User> users = jdbcTemplate.query(sql, USER_MAPPER, id);
+        if (users.isEmpty()) {
             throw new NotFoundException("Пользователь не найден.");
         }
-        String sql = "SELECT * FROM Users WHERE user_id = ?";
-        SqlRowSet rs = jdbcTemplate.queryForRowSet(sql, id);
-        rs.next();
+        return users.get(0);
+    }
 
-        Set<Long> idList = new HashSet<>();
-        for (User friend : getFriends(id)) {
-            idList.add(friend.getId());
-        }
+    @Override
+    public boolean exists(long id) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM Users WHERE user_id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, id));
+    }
 
-        return User.builder()
-                .id(rs.getLong("user_id"))
-                .email(rs.getString("email"))
-                .login(rs.getString("login"))
-                .name(rs.getString("name"))
-                .friends(idList)
-                .birthday(Objects.requireNonNull(rs.getDate("birthday")).toLocalDate())
-                .build();
+    @Override
+    public boolean existsAll(Collection<Long> ids) {
+        Set<Long> uniqueIds = new HashSet<>(ids);
+        if (uniqueIds.isEmpty()) {
+            return true;
+        }
+        String sql = String.format("SELECT COUNT(*) FROM Users WHERE user_id IN (%s)",
+                String.join(", ", Collections.nCopies(uniqueIds.size(), "?")));
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, uniqueIds.toArray());
+        return count != null && count == uniqueIds.size();
     }
 
     @Override
     public List<User> getFriends(long id) {
-        String sql = "SELECT * FROM friendship WHERE user_id = ? AND status = 'ACCEPTED'";
-        SqlRowSet rs = jdbcTemplate.queryForRowSet(sql, id);
-        List<User> friends = new ArrayList<>();
-        while (rs.next()) {
-            friends.add(findUserById(rs.getInt("friend_id")));
-        }
-        return friends;
+        return findUsersByIds(friendships.friends(id));
     }
 
     @Override
     public List<User> getCommonFriends(long userId, long otherId) {
-        List<User> commonFriends = new ArrayList<>(getFriends(userId));
-        commonFriends.retainAll(getFriends(otherId));
-        return commonFriends;
+        return findUsersByIds(friendships.commonFriends(userId, otherId));
+    }
+
+    @Override
+    public int getFriendsCount(long id) {
+        return friendships.degree(id);
+    }
+
+    @Override
+    public List<User> getFriendSuggestions(long id, int limit) {
+        long[] ids = friendships.suggestFriends(id, limit);
+        Map<Long, User> users = new HashMap<>();
+        for (User user : findUsersByIds(ids)) {
+            users.put(user.getId(), user);
+        }
+        List<User> suggestions = new ArrayList<>(ids.length);
+        for (long candidateId : ids) {
+            User user = users.get(candidateId);
+            if (user != null) {
+                suggestions.add(user);
+            }
+        }
+        return suggestions;
     }
 
     @Override
     public void addFriend(long userId, long friendId) {
-        String sql = "INSERT INTO Friendship (user_id, friend_id, status) VALUES (?, ?, ?)";
-        jdbcTemplate.update(sql, userId, friendId, "ACCEPTED");
+        String sql = "MERGE INTO Friendship (user_id, friend_id, status) KEY (user_id, friend_id) VALUES (?, ?, ?)";
+        synchronized (lockFor(userId)) {
+            jdbcTemplate.update(sql, userId, friendId, "ACCEPTED");
+            friendships.addFriend(userId, friendId);
+        }
     }
 
     @Override
     public void removeFriend(long userId, long friendId) {
         String sql = "DELETE FROM Friendship WHERE user_id = ? AND friend_id = ?";
-        jdbcTemplate.update(sql, userId, friendId);
+        synchronized (lockFor(userId)) {
+            jdbcTemplate.update(sql, userId, friendId);
+            friendships.removeFriend(userId, friendId);
+        }
     }
 
-    @Override
-    public void addFilmsLike(long filmId, long userId) {
-        String sql = "INSERT INTO Film_like (user_id, film_id) VALUES (?, ?)";
-        jdbcTemplate.update(sql, userId, filmId);
-        String sqlRate = "UPDATE Film SET rate=? WHERE film_id=?";
-        jdbcTemplate.update(sqlRate, +1, userId);
+    private List<User> findUsersByIds(long[] ids) {
+        List<User> users = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += IN_CLAUSE_LIMIT) {
+            int to = Math.min(from + IN_CLAUSE_LIMIT, ids.length);
+            Object[] params = new Object[to - from];
+            for (int i = from; i < to; i++) {
+                params[i - from] = ids[i];
+            }
+            String sql = String.format(USER_SELECT + "WHERE u.user_id IN (%s) ORDER BY u.user_id ASC",
+                    String.join(", ", Collections.nCopies(params.length, "?")));
+            users.addAll(jdbcTemplate.query(sql, USER_MAPPER, params));
+        }
+        return users;
     }
 
-    @Override
-    public void removeFilmLike(long filmId, long userId) {
-        String sql = "DELETE FROM Film_like WHERE user_id=? AND film_id=?";
-        jdbcTemplate.update(sql, userId, filmId);
-        String sqlRate = "UPDATE Film SET rate=? WHERE film_id=?";
-        jdbcTemplate.update(sqlRate, -1, userId);
+    private Object lockFor(long userId) {
+        return locks[(int) Math.floorMod(userId, (long) LOCK_STRIPES)];
     }
-}
\ No newline at end of file
+}
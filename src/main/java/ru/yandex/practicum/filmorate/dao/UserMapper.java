@@ -1,25 +1,16 @@
 package ru.yandex.practicum.filmorate.dao;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 public class UserMapper implements RowMapper<User> {
 
-    private final JdbcTemplate jdbcTemplate;
-
-    @Autowired
-    public UserMapper(JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
-    }
-
     @Override
     public User mapRow(ResultSet rs, int rowNum) throws SQLException {
         User user = User.builder()
@@ -27,14 +18,20 @@ public class UserMapper implements RowMapper<User> {
                 .email(rs.getString("email"))
                 .login(rs.getString("login"))
                 .name(rs.getString("name"))
-                .birthday(rs.getDate("birthday").toLocalDate())
+                .friends(parseIds(rs.getString("friend_ids")))
+                .birthday(Objects.requireNonNull(rs.getDate("birthday")).toLocalDate())
                 .build();
-        int userId = rs.getInt("user_id");
-        String sql = "SELECT film_id FROM Film_like WHERE user_id = ?";
-        List<Long> filmIds = jdbcTemplate.queryForList(sql, new Object[]{userId}, Long.class);
-        Set<Long> filmsLike = new HashSet<>(filmIds);
-        user.getFilmsLike().addAll(filmsLike);
-
+        user.getFilmsLike().addAll(parseIds(rs.getString("film_ids")));
         return user;
     }
-}
\ No newline at end of file
+
+    private Set<Long> parseIds(String ids) {
+        Set<Long> result = new HashSet<>();
+        if (ids != null) {
+            for (String id : ids.split(",")) {
+                result.add(Long.parseLong(id));
+            }
+        }
+        return result;
+    }
+}
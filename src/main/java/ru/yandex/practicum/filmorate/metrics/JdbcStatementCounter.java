@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+@Component
+public class JdbcStatementCounter implements BeanPostProcessor {
+    private static final Set<String> STATEMENT_METHODS = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    private final boolean recordExecutions;
+    private final ThreadLocal<StatementLog> logs = new ThreadLocal<>();
+
+    public JdbcStatementCounter(@Value("${filmorate.jdbc.detector.enabled:false}") boolean recordExecutions) {
+        this.recordExecutions = recordExecutions;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource((DataSource) bean);
+        }
+        return bean;
+    }
+
+    public StatementLog begin() {
+        StatementLog log = new StatementLog(logs.get());
+        logs.set(log);
+        return log;
+    }
+
+    public StatementLog end() {
+        StatementLog log = logs.get();
+        if (log == null) {
+            return null;
+        }
+        if (log.getParent() == null) {
+            logs.remove();
+        } else {
+            logs.set(log.getParent());
+        }
+        return log;
+    }
+
+    private Connection countingConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    StatementLog log = logs.get();
+                    if (log != null && STATEMENT_METHODS.contains(method.getName())) {
+                        log.statementCreated();
+                        if (recordExecutions) {
+                            String sql = args != null && args.length > 0 ? (String) args[0] : null;
+                            return timedStatement((Statement) result, method.getReturnType(), sql, log);
+                        }
+                    }
+                    return result;
+                });
+    }
+
+    private Object timedStatement(Statement statement, Class<?> type, String preparedSql, StatementLog log) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    String sql = args != null && args.length > 0 && args[0] instanceof String
+                            ? (String) args[0] : preparedSql;
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        log.statementExecuted(sql == null ? "<batch>" : sql, System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class CountingDataSource extends DelegatingDataSource {
+        private CountingDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return countingConnection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return countingConnection(super.getConnection(username, password));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.yandex.practicum.filmorate.storage.film.CachingFilmStorage;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+    private final RequestMetricsInterceptor requestMetricsInterceptor;
+
+    @Autowired
+    public MetricsConfig(RequestMetricsInterceptor requestMetricsInterceptor) {
+        this.requestMetricsInterceptor = requestMetricsInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestMetricsInterceptor);
+    }
+
+    @Bean
+    public static MeterBinder filmCacheMetrics(ObjectProvider<CachingFilmStorage> cachingFilmStorage) {
+        return registry -> cachingFilmStorage.ifAvailable(storage ->
+                CaffeineCacheMetrics.monitor(registry, storage.getCache(), "films"));
+    }
+}
@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+public class QueryDetector {
+    private final boolean enabled;
+    private final int repeatedThreshold;
+    private final long slowQueryNanos;
+
+    public QueryDetector(@Value("${filmorate.jdbc.detector.enabled:false}") boolean enabled,
+                         @Value("${filmorate.jdbc.detector.repeated-threshold:5}") int repeatedThreshold,
+                         @Value("${filmorate.jdbc.detector.slow-query:100ms}") Duration slowQuery) {
+        this.enabled = enabled;
+        this.repeatedThreshold = repeatedThreshold;
+        this.slowQueryNanos = slowQuery.toNanos();
+    }
+
+    public List<String> inspect(String origin, StatementLog statementLog) {
+        List<String> problems = new ArrayList<>();
+        if (!enabled) {
+            return problems;
+        }
+        for (StatementLog.Shape shape : statementLog.getShapes()) {
+            log.debug("{}: {} раз, {} мкс: {}", origin, shape.getExecutions(), shape.getTotalNanos() / 1000,
+                    shape.getSql());
+            if (shape.getExecutions() > repeatedThreshold) {
+                problems.add(String.format("%s: запрос выполнен %d раз, возможна проблема N+1: %s",
+                        origin, shape.getExecutions(), shape.getSql()));
+            }
+            if (shape.getMaxNanos() > slowQueryNanos) {
+                problems.add(String.format("%s: медленный запрос, %d мс: %s",
+                        origin, Duration.ofNanos(shape.getMaxNanos()).toMillis(), shape.getSql()));
+            }
+        }
+        problems.forEach(log::warn);
+        return problems;
+    }
+}
@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+    private static final String SUMMARY_NAME = "filmorate.http.jdbc.statements";
+
+    private final JdbcStatementCounter statementCounter;
+    private final QueryDetector queryDetector;
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RequestMetricsInterceptor(JdbcStatementCounter statementCounter, QueryDetector queryDetector,
+                                     MeterRegistry registry) {
+        this.statementCounter = statementCounter;
+        this.queryDetector = queryDetector;
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        statementCounter.begin();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        statementCounter.end();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        StatementLog statementLog = statementCounter.end();
+        if (statementLog == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String method = request.getMethod();
+        summaries.computeIfAbsent(method + " " + uri, key -> DistributionSummary.builder(SUMMARY_NAME)
+                        .description("Количество SQL-запросов на один HTTP-запрос")
+                        .baseUnit("statements")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(registry))
+                .record(statementLog.getCount());
+        queryDetector.inspect(origin(handler, method, uri), statementLog);
+    }
+
+    private String origin(Object handler, String method, String uri) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        }
+        return method + " " + uri;
+    }
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+public class StatementLog {
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Getter
+    private final StatementLog parent;
+    @Getter
+    private int count;
+    private final Map<String, Shape> shapes = new LinkedHashMap<>();
+
+    StatementLog(StatementLog parent) {
+        this.parent = parent;
+    }
+
+    public Collection<Shape> getShapes() {
+        return shapes.values();
+    }
+
+    void statementCreated() {
+        for (StatementLog log = this; log != null; log = log.parent) {
+            log.count++;
+        }
+    }
+
+    void statementExecuted(String sql, long nanos) {
+        String shape = shapeOf(sql);
+        for (StatementLog log = this; log != null; log = log.parent) {
+            log.shapes.computeIfAbsent(shape, Shape::new).record(nanos);
+        }
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("?, ...");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    @Getter
+    public static class Shape {
+        private final String sql;
+        private int executions;
+        private long totalNanos;
+        private long maxNanos;
+
+        private Shape(String sql) {
+            this.sql = sql;
+        }
+
+        private void record(long nanos) {
+            executions++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+    }
+}
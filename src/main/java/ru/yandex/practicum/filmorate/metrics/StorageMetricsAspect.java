@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+@Component
+public class StorageMetricsAspect {
+    private static final String TIMER_NAME = "filmorate.storage";
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StorageMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(* ru.yandex.practicum.filmorate.storage.film.FilmStorage.*(..)) || " +
+            "execution(* ru.yandex.practicum.filmorate.storage.user.UserStorage.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        Class<?> storage = AopUtils.getTargetClass(joinPoint.getTarget());
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            timers.computeIfAbsent(storage, key -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(method, key -> timer(storage, method, "none"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(storage, method, e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(Class<?> storage, String method, String exception) {
+        return Timer.builder(TIMER_NAME)
+                .description("Время выполнения методов хранилищ")
+                .tag("storage", storage.getSimpleName())
+                .tag("method", method)
+                .tag("exception", exception)
+                .register(registry);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchItemResult {
+    private final int index;
+    private Long id;
+    private ItemStatus status;
+    private List<String> errors;
+
+    public enum ItemStatus {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+}
@@ -1,17 +1,18 @@
 package ru.yandex.practicum.filmorate.model;
 
 import lombok.Builder;
-import lombok.Data;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
 import javax.validation.constraints.NotNull;
 
-@Data
+@Value
 @Builder
-
+@Jacksonized
 public class MPA {
     @NotNull
-    private int id;
-    private String name;
+    int id;
+    String name;
 
     public MPA(int id, String name) {
         this.id = id;
@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+@Slf4j
+public class BatchImporter<T> {
+    private final Validator validator;
+    private final int batchSize;
+    private final Function<T, List<String>> checker;
+    private final Function<List<T>, List<T>> saver;
+    private final Function<T, Long> idGetter;
+
+    public BatchImporter(Validator validator, int batchSize, Function<T, List<String>> checker,
+                         Function<List<T>, List<T>> saver, Function<T, Long> idGetter) {
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.checker = checker;
+        this.saver = saver;
+        this.idGetter = idGetter;
+    }
+
+    public List<BatchItemResult> importAll(Iterator<T> items) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<T> batch = new ArrayList<>(batchSize);
+        List<BatchItemResult> batchResults = new ArrayList<>(batchSize);
+        int index = 0;
+        while (items.hasNext()) {
+            BatchItemResult result = new BatchItemResult(index++);
+            results.add(result);
+            T item;
+            try {
+                item = items.next();
+            } catch (ValidationException e) {
+                result.setStatus(BatchItemResult.ItemStatus.FAILED);
+                result.setErrors(List.of(e.getMessage()));
+                continue;
+            }
+            List<String> errors = validate(item);
+            if (!errors.isEmpty()) {
+                result.setStatus(BatchItemResult.ItemStatus.INVALID);
+                result.setErrors(errors);
+                continue;
+            }
+            batch.add(item);
+            batchResults.add(result);
+            if (batch.size() == batchSize) {
+                flush(batch, batchResults);
+            }
+        }
+        flush(batch, batchResults);
+        return results;
+    }
+
+    private List<String> validate(T item) {
+        List<String> errors = new ArrayList<>();
+        if (item == null) {
+            errors.add("Пустой элемент.");
+            return errors;
+        }
+        for (ConstraintViolation<T> violation : validator.validate(item)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        errors.addAll(checker.apply(item));
+        return errors;
+    }
+
+    private void flush(List<T> batch, List<BatchItemResult> batchResults) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() == 1) {
+            saveOne(batch.get(0), batchResults.get(0));
+        } else {
+            try {
+                markCreated(saver.apply(batch), batchResults);
+            } catch (DataAccessException e) {
+                log.warn("Не удалось сохранить пакет из {} элементов, сохраняем по одному", batch.size(), e);
+                for (int i = 0; i < batch.size(); i++) {
+                    saveOne(batch.get(i), batchResults.get(i));
+                }
+            }
+        }
+        batch.clear();
+        batchResults.clear();
+    }
+
+    private void saveOne(T item, BatchItemResult result) {
+        try {
+            markCreated(saver.apply(List.of(item)), List.of(result));
+        } catch (DataAccessException e) {
+            log.warn("Не удалось сохранить элемент {}", result.getIndex(), e);
+            result.setStatus(BatchItemResult.ItemStatus.FAILED);
+            result.setErrors(List.of(e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    private void markCreated(List<T> saved, List<BatchItemResult> batchResults) {
+        for (int i = 0; i < saved.size(); i++) {
+            batchResults.get(i).setId(idGetter.apply(saved.get(i)));
+            batchResults.get(i).setStatus(BatchItemResult.ItemStatus.CREATED);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.service.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.SortedLongArrays;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@Slf4j
+@Component
+public class FilmSearchIndex {
+    public static final String TITLE = "title";
+    public static final String DESCRIPTION = "description";
+
+    private static final int TITLE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH_BONUS = 1;
+
+    private final FilmStorage filmStorage;
+    private volatile Index index = new Index();
+
+    @Autowired
+    public FilmSearchIndex(FilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+        rebuild();
+    }
+
+    public synchronized int rebuild() {
+        Index rebuilt = new Index();
+        filmStorage.streamFilms(rebuilt::put);
+        index = rebuilt;
+        log.info("Поисковый индекс фильмов перестроен: {} фильмов", rebuilt.size());
+        return rebuilt.size();
+    }
+
+    public synchronized void put(Film film) {
+        index.put(film);
+    }
+
+    public synchronized void putAll(Collection<Film> films) {
+        Index current = index;
+        films.forEach(current::put);
+    }
+
+    public Map<Long, Integer> search(String query, Set<String> fields) {
+        Index current = index;
+        Map<Long, Integer> scores = new HashMap<>();
+        for (String token : tokenize(query)) {
+            if (fields.contains(TITLE)) {
+                current.titles.score(token, TITLE_WEIGHT, scores);
+            }
+            if (fields.contains(DESCRIPTION)) {
+                current.descriptions.score(token, DESCRIPTION_WEIGHT, scores);
+            }
+        }
+        return scores;
+    }
+
+    public Map<Long, Integer> search(String query, Set<String> fields, int limit) {
+        Map<Long, Integer> scores = search(query, fields);
+        if (scores.size() > limit) {
+            int[] values = scores.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+            int cutoff = values[values.length - limit];
+            scores.values().removeIf(score -> score < cutoff);
+        }
+        return scores;
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Index {
+        private final Field titles = new Field();
+        private final Field descriptions = new Field();
+
+        private void put(Film film) {
+            titles.put(film.getId(), film.getName());
+            descriptions.put(film.getId(), film.getDescription());
+        }
+
+        private int size() {
+            return titles.documents.size();
+        }
+    }
+
+    private static final class Field {
+        private final ConcurrentSkipListMap<String, long[]> postings = new ConcurrentSkipListMap<>();
+        private final ConcurrentHashMap<Long, Set<String>> documents = new ConcurrentHashMap<>();
+
+        private void put(long filmId, String text) {
+            Set<String> terms = tokenize(text);
+            Set<String> previous = documents.put(filmId, terms);
+            if (previous != null) {
+                for (String term : previous) {
+                    if (!terms.contains(term)) {
+                        postings.computeIfPresent(term, (key, ids) -> SortedLongArrays.remove(ids, filmId));
+                    }
+                }
+            }
+            for (String term : terms) {
+                postings.compute(term, (key, ids) -> SortedLongArrays.insert(ids, filmId));
+            }
+        }
+
+        private void score(String token, int weight, Map<Long, Integer> scores) {
+            Map<Long, Integer> best = new HashMap<>();
+            for (Map.Entry<String, long[]> match : postings.subMap(token, true, token + Character.MAX_VALUE, true)
+                    .entrySet()) {
+                int score = match.getKey().equals(token) ? weight + EXACT_MATCH_BONUS : weight;
+                for (long filmId : match.getValue()) {
+                    best.merge(filmId, score, Math::max);
+                }
+            }
+            best.forEach((filmId, score) -> scores.merge(filmId, score, Integer::sum));
+        }
+    }
+}
@@ -3,14 +3,31 @@ package ru.yandex.practicum.filmorate.service.film;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Page;
+import ru.yandex.practicum.filmorate.service.BatchImporter;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import javax.validation.Validator;
+import java.time.Year;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 
@@ -20,48 +37,190 @@ import java.util.stream.Collectors;
 public class FilmService {
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    private final BatchImporter<Film> batchImporter;
+    private final LikeBuffer likeBuffer;
+    private final FilmSearchIndex searchIndex;
 
     @Autowired
-    public FilmService(@Qualifier("filmDbStorage") FilmStorage filmStorage,
-                       @Qualifier("userDbStorage") UserStorage userStorage) {
+    public FilmService(FilmStorage filmStorage,
+                       UserStorage userStorage,
+                       GenreStorage genreStorage,
+                       MpaStorage mpaStorage,
+                       LikeBuffer likeBuffer,
+                       FilmSearchIndex searchIndex,
+                       Validator validator,
+                       @Value("${filmorate.import.batch-size:500}") int batchSize) {
         this.filmStorage = filmStorage;
         this.userStorage = userStorage;
+        this.genreStorage = genreStorage;
+        this.mpaStorage = mpaStorage;
+        this.likeBuffer = likeBuffer;
+        this.searchIndex = searchIndex;
+        this.batchImporter = new BatchImporter<>(validator, batchSize, this::checkReferences,
+                this::saveAll, Film::getId);
     }
 
     public List<Film> getFilms() {
         return filmStorage.getFilms();
     }
 
+    public Page<Film> getFilms(long afterId, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным.");
+        }
+        if (afterId < 0) {
+            throw new ValidationException("Id фильма, после которого начинается страница, " +
+                    "не может быть отрицательным.");
+        }
+        List<Film> films = filmStorage.getFilms(afterId, limit + 1);
+        if (films.size() <= limit) {
+            return new Page<>(films, null);
+        }
+        List<Film> page = films.subList(0, limit);
+        return new Page<>(page, page.get(limit - 1).getId());
+    }
+
+    public void exportFilms(Consumer<Film> consumer) {
+        filmStorage.streamFilms(consumer);
+    }
+
     public Film create(Film film) {
-        return filmStorage.create(film);
+        Film created = filmStorage.create(film);
+        searchIndex.put(created);
+        return created;
+    }
+
+    public List<BatchItemResult> createAll(Iterator<Film> films) {
+        return batchImporter.importAll(films);
     }
 
     public Film update(Film film) {
-        return filmStorage.updateFilm(film);
+        Film updated = filmStorage.updateFilm(film);
+        searchIndex.put(updated);
+        return updated;
+    }
+
+    public List<Film> search(String query, String by, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Поисковый запрос не может быть пустым.");
+        }
+        if (limit <= 0) {
+            throw new ValidationException("Количество результатов должно быть положительным.");
+        }
+        Set<String> fields = new HashSet<>();
+        for (String field : by.split(",")) {
+            String name = field.trim();
+            if (!FilmSearchIndex.TITLE.equals(name) && !FilmSearchIndex.DESCRIPTION.equals(name)) {
+                throw new ValidationException("Неизвестное поле поиска: " + name);
+            }
+            fields.add(name);
+        }
+        Map<Long, Integer> scores = searchIndex.search(query, fields, limit);
+        long[] ids = scores.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        return filmStorage.findFilmsByIds(ids).stream()
+                .sorted(Comparator.<Film>comparingInt(film -> scores.get(film.getId())).reversed()
+                        .thenComparing(Comparator.comparingInt(Film::getRate).reversed())
+                        .thenComparing(Film::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public int rebuildSearchIndex() {
+        return searchIndex.rebuild();
+    }
+
+    private List<Film> saveAll(List<Film> films) {
+        List<Film> created = filmStorage.createAll(films);
+        searchIndex.putAll(created);
+        return created;
     }
 
     public Film findFilmById(long id) {
         return filmStorage.findFilmById(id);
     }
 
-    public List<Film> getPopular(int count) {
-        return filmStorage.getFilms().stream()
-                .sorted(Comparator.comparingInt(Film::getRate).reversed())
+    public List<Film> getPopular(int count, Integer genreId, Integer year) {
+        if (count <= 0) {
+            throw new ValidationException("Количество фильмов должно быть положительным.");
+        }
+        if (year != null && (year < Year.MIN_VALUE || year >= Year.MAX_VALUE)) {
+            throw new ValidationException("Некорректный год выпуска: " + year);
+        }
+        if (genreId != null && genreStorage.findGenreById(genreId) == null) {
+            throw new NotFoundException("Жанр не найден.");
+        }
+        if (!likeBuffer.isEnabled()) {
+            return filmStorage.getPopular(count, genreId, year);
+        }
+        Map<Long, Integer> deltas = likeBuffer.getPendingDeltas();
+        if (deltas.isEmpty()) {
+            return filmStorage.getPopular(count, genreId, year);
+        }
+        Map<Long, Film> candidates = new HashMap<>();
+        filmStorage.getPopular(count + deltas.size(), genreId, year)
+                .forEach(film -> candidates.put(film.getId(), film));
+        deltas.forEach((filmId, delta) -> {
+            if (delta > 0 && !candidates.containsKey(filmId)) {
+                Film film = filmStorage.findFilmById(filmId);
+                if (matches(film, genreId, year)) {
+                    candidates.put(filmId, film);
+                }
+            }
+        });
+        candidates.values().forEach(film -> film.setRate(film.getRate() + deltas.getOrDefault(film.getId(), 0)));
+        return candidates.values().stream()
+                .sorted(Comparator.comparingInt(Film::getRate).reversed().thenComparing(Film::getId))
                 .limit(count)
                 .collect(Collectors.toList());
     }
 
+    private boolean matches(Film film, Integer genreId, Integer year) {
+        if (genreId != null && film.getGenres().stream().noneMatch(genre -> genre.getId() == genreId)) {
+            return false;
+        }
+        return year == null || film.getReleaseDate() != null && film.getReleaseDate().getYear() == year;
+    }
+
+    private List<String> checkReferences(Film film) {
+        List<String> errors = new ArrayList<>();
+        if (film.getMpa() == null) {
+            errors.add("mpa: Возрастной рейтинг не указан.");
+        } else if (mpaStorage.findMPAById(film.getMpa().getId()) == null) {
+            errors.add("mpa: Возрастной рейтинг с id = " + film.getMpa().getId() + " не найден.");
+        }
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                if (genre == null || genreStorage.findGenreById(genre.getId()) == null) {
+                    errors.add("genres: Жанр " + (genre == null ? null : genre.getId()) + " не найден.");
+                }
+            }
+        }
+        return errors;
+    }
+
     public void addFilmLike(long filmId, long userId) {
-        userStorage.addFilmsLike(filmId, userId);
-        Film film = filmStorage.findFilmById(filmId);
-        film.setRate(film.getRate() + 1);
-        userStorage.findUserById(userId).getFilmsLike().add(filmId);
+        filmStorage.findFilmById(filmId);
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException("User with id = " + userId + " not found");
+        }
+        if (likeBuffer.isEnabled()) {
+            likeBuffer.addLike(filmId, userId);
+        } else {
+            filmStorage.addLike(filmId, userId);
+        }
     }
 
     public void removeFilmLike(long filmId, long userId) {
-        userStorage.removeFilmLike(filmId, userId);
-        Film film = filmStorage.findFilmById(filmId);
-        film.setRate(film.getRate() - 1);
-        userStorage.findUserById(userId).getFilmsLike().remove(filmId);
+        filmStorage.findFilmById(filmId);
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException("User with id = " + userId + " not found");
+        }
+        if (likeBuffer.isEnabled()) {
+            likeBuffer.removeLike(filmId, userId);
+        } else {
+            filmStorage.removeLike(filmId, userId);
+        }
     }
 }
@@ -0,0 +1,133 @@
+package ru.yandex.practicum.filmorate.service.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Component
+public class LikeBuffer {
+    private final FilmStorage filmStorage;
+    private final boolean enabled;
+    private final Stripe[] stripes;
+
+    @Autowired
+    public LikeBuffer(FilmStorage filmStorage,
+                      @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+                      @Value("${filmorate.likes.write-behind.stripes:16}") int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Количество сегментов буфера лайков должно быть положительным: "
+                    + stripes);
+        }
+        this.filmStorage = filmStorage;
+        this.enabled = enabled;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void addLike(long filmId, long userId) {
+        record(filmId, userId, true);
+    }
+
+    public void removeLike(long filmId, long userId) {
+        record(filmId, userId, false);
+    }
+
+    public Map<Long, Integer> getPendingDeltas() {
+        Map<Long, Map<Long, Boolean>> pending = new HashMap<>();
+        Set<Long> users = new HashSet<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.pending.forEach((filmId, likes) -> {
+                    pending.put(filmId, new HashMap<>(likes));
+                    users.addAll(likes.keySet());
+                });
+            }
+        }
+        Map<Long, Integer> deltas = new HashMap<>();
+        if (pending.isEmpty()) {
+            return deltas;
+        }
+        Map<Long, Set<Long>> stored = filmStorage.findLikes(pending.keySet(), users);
+        pending.forEach((filmId, likes) -> {
+            Set<Long> likedBy = stored.getOrDefault(filmId, Set.of());
+            int delta = 0;
+            for (Map.Entry<Long, Boolean> like : likes.entrySet()) {
+                if (like.getValue() != likedBy.contains(like.getKey())) {
+                    delta += like.getValue() ? 1 : -1;
+                }
+            }
+            if (delta != 0) {
+                deltas.put(filmId, delta);
+            }
+        });
+        return deltas;
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.likes.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        for (Stripe stripe : stripes) {
+            Map<Long, Map<Long, Boolean>> pending;
+            synchronized (stripe) {
+                if (stripe.pending.isEmpty()) {
+                    continue;
+                }
+                pending = stripe.pending;
+                stripe.pending = new HashMap<>();
+            }
+            pending.forEach((filmId, likes) -> flushFilm(stripe, filmId, likes));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    private void flushFilm(Stripe stripe, long filmId, Map<Long, Boolean> likes) {
+        List<Long> likedBy = new ArrayList<>();
+        List<Long> unlikedBy = new ArrayList<>();
+        likes.forEach((userId, like) -> (like ? likedBy : unlikedBy).add(userId));
+        try {
+            filmStorage.applyLikes(filmId, likedBy, unlikedBy);
+        } catch (RuntimeException e) {
+            log.error("Не удалось сохранить {} лайков для фильма с id = {}, повтор при следующей записи",
+                    likes.size(), filmId, e);
+            synchronized (stripe) {
+                Map<Long, Boolean> pending = stripe.pending.computeIfAbsent(filmId, id -> new HashMap<>());
+                likes.forEach(pending::putIfAbsent);
+            }
+        }
+    }
+
+    private void record(long filmId, long userId, boolean like) {
+        Stripe stripe = stripes[(int) Math.floorMod(filmId, (long) stripes.length)];
+        synchronized (stripe) {
+            stripe.pending.computeIfAbsent(filmId, id -> new HashMap<>()).put(userId, like);
+        }
+    }
+
+    private static class Stripe {
+        private Map<Long, Map<Long, Boolean>> pending = new HashMap<>();
+    }
+}
@@ -3,14 +3,22 @@ package ru.yandex.practicum.filmorate.service.user;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.BatchImporter;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import javax.validation.Validator;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 @Data
@@ -19,12 +27,20 @@ import java.util.List;
 public class UserService {
     private final UserStorage userStorage;
     private final FilmStorage filmStorage;
+    private final BatchImporter<User> batchImporter;
+    private final int recommendationNeighbours;
 
     @Autowired
-    public UserService(@Qualifier("userDbStorage") UserStorage userStorage,
-                       @Qualifier("filmDbStorage") FilmStorage filmStorage) {
+    public UserService(UserStorage userStorage,
+                       FilmStorage filmStorage,
+                       Validator validator,
+                       @Value("${filmorate.import.batch-size:500}") int batchSize,
+                       @Value("${filmorate.recommendations.neighbours:10}") int recommendationNeighbours) {
         this.userStorage = userStorage;
         this.filmStorage = filmStorage;
+        this.recommendationNeighbours = recommendationNeighbours;
+        this.batchImporter = new BatchImporter<>(validator, batchSize, user -> List.of(),
+                userStorage::createAll, User::getId);
     }
 
     public User create(User user) {
@@ -32,40 +48,24 @@ public class UserService {
         return user;
     }
 
+    public List<BatchItemResult> createAll(Iterator<User> users) {
+        return batchImporter.importAll(users);
+    }
+
     public User update(User user) {
-        if (userStorage.findUserById(user.getId()) != null) {
-            return userStorage.update(user);
-        } else {
-            throw new NotFoundException("Пользователя с таким ID не существует");
-        }
+        return userStorage.update(user);
     }
 
     public User addFriend(Long userId, Long friendId) throws NotFoundException {
-        final User user = userStorage.findUserById(userId.longValue());
-        final User friend = userStorage.findUserById(friendId.longValue());
-
-        if (user == null) {
-            throw new NotFoundException("User with id = " + userId + " not found");
-        } else if (friend == null) {
-            throw new NotFoundException("User with id = " + friendId + " not found");
-        } else {
-            userStorage.addFriend(userId, friendId);
-            return userStorage.update(user);
-        }
+        checkUsersExist(userId, friendId);
+        userStorage.addFriend(userId, friendId);
+        return userStorage.findUserById(userId);
     }
 
     public User deleteFriend(Long userId, Long friendId) throws NotFoundException {
-        User user = userStorage.findUserById(userId.longValue());
-        User friend = userStorage.findUserById(friendId.longValue());
-
-        if (user == null) {
-            throw new NotFoundException("User with id = " + userId + " not found");
-        } else if (friend == null) {
-            throw new NotFoundException("User with id = " + friendId + " not found");
-        } else {
-            userStorage.removeFriend(userId, friendId);
-            return userStorage.update(user);
-        }
+        checkUsersExist(userId, friendId);
+        userStorage.removeFriend(userId, friendId);
+        return userStorage.findUserById(userId);
     }
 
     public User get(Long userId) throws NotFoundException {
@@ -80,26 +80,61 @@ public class UserService {
         return userStorage.getUsers();
     }
 
+    public Page<User> getAll(long afterId, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным.");
+        }
+        if (afterId < 0) {
+            throw new ValidationException("Id пользователя, после которого начинается страница, " +
+                    "не может быть отрицательным.");
+        }
+        List<User> users = userStorage.getUsers(afterId, limit + 1);
+        if (users.size() <= limit) {
+            return new Page<>(users, null);
+        }
+        List<User> page = users.subList(0, limit);
+        return new Page<>(page, page.get(limit - 1).getId());
+    }
+
     public List<User> getFriendsUser(Long userId) throws NotFoundException {
-        User user = userStorage.findUserById(userId.longValue());
-        if (user == null) {
-            throw new NotFoundException("User with id = " + userId + " not found");
-        } else {
-            List<User> friendsList = userStorage.getFriends(userId.longValue());
-            return friendsList;
+        checkUsersExist(userId);
+        return userStorage.getFriends(userId);
+    }
+
+    public int getFriendsCount(Long userId) throws NotFoundException {
+        checkUsersExist(userId);
+        return userStorage.getFriendsCount(userId);
+    }
+
+    public List<User> getFriendSuggestions(Long userId, int limit) throws NotFoundException {
+        if (limit <= 0) {
+            throw new ValidationException("Количество рекомендаций должно быть положительным.");
         }
+        checkUsersExist(userId);
+        return userStorage.getFriendSuggestions(userId, limit);
+    }
+
+    public List<Film> getRecommendations(Long userId, int count) throws NotFoundException {
+        if (count <= 0) {
+            throw new ValidationException("Количество рекомендаций должно быть положительным.");
+        }
+        checkUsersExist(userId);
+        return filmStorage.getRecommendations(userId, recommendationNeighbours, count);
     }
 
     public List<User> getCommonFriends(Long userId, Long otherUserId) throws NotFoundException {
-        User user = userStorage.findUserById(userId.longValue());
-        User otherUser = userStorage.findUserById(otherUserId.longValue());
+        checkUsersExist(userId, otherUserId);
+        return userStorage.getCommonFriends(userId, otherUserId);
+    }
 
-        if (user == null) {
-            throw new NotFoundException("User with id = " + userId + " not found");
-        } else if (otherUser == null) {
-            throw new NotFoundException("User with id = " + otherUserId + " not found");
-        } else {
-            return userStorage.getCommonFriends(userId, otherUserId);
+    private void checkUsersExist(Long... userIds) throws NotFoundException {
+        if (userStorage.existsAll(Arrays.asList(userIds))) {
+            return;
+        }
+        for (Long userId : userIds) {
+            if (!userStorage.exists(userId)) {
+                throw new NotFoundException("User with id = " + userId + " not found");
+            }
         }
     }
 }
@@ -0,0 +1,92 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+public final class SortedLongArrays {
+    public static final long[] EMPTY = new long[0];
+
+    private SortedLongArrays() {
+    }
+
+    public static long[] of(Collection<Long> values) {
+        if (values == null || values.isEmpty()) {
+            return EMPTY;
+        }
+        long[] result = new long[values.size()];
+        int i = 0;
+        for (Long value : values) {
+            result[i++] = value;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    public static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    public static boolean contains(long[] a, long value) {
+        return a != null && Arrays.binarySearch(a, value) >= 0;
+    }
+
+    public static long[] insert(long[] a, long value) {
+        if (a == null) {
+            return new long[]{value};
+        }
+        int index = Arrays.binarySearch(a, value);
+        if (index >= 0) {
+            return a;
+        }
+        int position = -index - 1;
+        long[] result = new long[a.length + 1];
+        System.arraycopy(a, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(a, position, result, position + 1, a.length - position);
+        return result;
+    }
+
+    public static long[] remove(long[] a, long value) {
+        if (a == null) {
+            return null;
+        }
+        int index = Arrays.binarySearch(a, value);
+        if (index < 0) {
+            return a;
+        }
+        if (a.length == 1) {
+            return null;
+        }
+        long[] result = new long[a.length - 1];
+        System.arraycopy(a, 0, result, 0, index);
+        System.arraycopy(a, index + 1, result, index, a.length - index - 1);
+        return result;
+    }
+
+    public static Set<Long> toSet(long[] a) {
+        Set<Long> result = new HashSet<>();
+        if (a != null) {
+            for (long value : a) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+}
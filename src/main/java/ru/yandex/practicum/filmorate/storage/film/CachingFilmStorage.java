@@ -0,0 +1,168 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+@Primary
+@Component
+@Profile("!in-memory")
+public class CachingFilmStorage implements FilmStorage {
+    private final FilmStorage filmStorage;
+    private final Cache<Long, Film> films;
+
+    @Autowired
+    public CachingFilmStorage(@Qualifier("filmDbStorage") FilmStorage filmStorage,
+                              @Value("${filmorate.film-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${filmorate.film-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.filmStorage = filmStorage;
+        this.films = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        return filmStorage.getFilms();
+    }
+
+    @Override
+    public List<Film> getFilms(long afterId, int limit) {
+        return filmStorage.getFilms(afterId, limit);
+    }
+
+    @Override
+    public void streamFilms(Consumer<Film> consumer) {
+        filmStorage.streamFilms(consumer);
+    }
+
+    @Override
+    public Film create(Film film) {
+        Film created = filmStorage.create(film);
+        films.invalidate(created.getId());
+        return created;
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> newFilms) {
+        List<Film> created = filmStorage.createAll(newFilms);
+        created.forEach(film -> films.invalidate(film.getId()));
+        return created;
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        try {
+            return filmStorage.updateFilm(film);
+        } finally {
+            films.invalidate(film.getId());
+        }
+    }
+
+    @Override
+    public Film findFilmById(long id) {
+        return copy(films.get(id, filmStorage::findFilmById));
+    }
+
+    @Override
+    public List<Film> findFilmsByIds(long[] ids) {
+        List<Long> keys = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            keys.add(id);
+        }
+        Map<Long, Film> found = films.getAll(keys, this::loadAll);
+        return keys.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(this::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Film> getPopular(int count, Integer genreId, Integer year) {
+        return filmStorage.getPopular(count, genreId, year);
+    }
+
+    @Override
+    public List<Film> getRecommendations(long userId, int neighbours, int count) {
+        return filmStorage.getRecommendations(userId, neighbours, count);
+    }
+
+    @Override
+    public void addLike(long filmId, long userId) {
+        try {
+            filmStorage.addLike(filmId, userId);
+        } finally {
+            films.invalidate(filmId);
+        }
+    }
+
+    @Override
+    public void removeLike(long filmId, long userId) {
+        try {
+            filmStorage.removeLike(filmId, userId);
+        } finally {
+            films.invalidate(filmId);
+        }
+    }
+
+    @Override
+    public void applyLikes(long filmId, Collection<Long> likedBy, Collection<Long> unlikedBy) {
+        try {
+            filmStorage.applyLikes(filmId, likedBy, unlikedBy);
+        } finally {
+            films.invalidate(filmId);
+        }
+    }
+
+    @Override
+    public Map<Long, Set<Long>> findLikes(Collection<Long> filmIds, Collection<Long> userIds) {
+        return filmStorage.findLikes(filmIds, userIds);
+    }
+
+    public Cache<Long, Film> getCache() {
+        return films;
+    }
+
+    public CacheStats getStats() {
+        return films.stats();
+    }
+
+    private Map<Long, Film> loadAll(Iterable<? extends Long> ids) {
+        long[] missing = StreamSupport.stream(ids.spliterator(), false)
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        return filmStorage.findFilmsByIds(missing).stream()
+                .collect(Collectors.toMap(Film::getId, Function.identity()));
+    }
+
+    private Film copy(Film film) {
+        Film.FilmBuilder builder = film.toBuilder();
+        if (film.getGenres() != null) {
+            builder.genres(new ArrayList<>(film.getGenres()));
+        }
+        return builder.build();
+    }
+}
@@ -2,15 +2,39 @@ package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
 
     List<Film> getFilms();
 
+    List<Film> getFilms(long afterId, int limit);
+
+    void streamFilms(Consumer<Film> consumer);
+
     Film create(Film film);
 
+    List<Film> createAll(List<Film> films);
+
     Film updateFilm(Film film);
 
     Film findFilmById(long id);
+
+    List<Film> findFilmsByIds(long[] ids);
+
+    List<Film> getPopular(int count, Integer genreId, Integer year);
+
+    List<Film> getRecommendations(long userId, int neighbours, int count);
+
+    void addLike(long filmId, long userId);
+
+    void removeLike(long filmId, long userId);
+
+    void applyLikes(long filmId, Collection<Long> likedBy, Collection<Long> unlikedBy);
+
+    Map<Long, Set<Long>> findLikes(Collection<Long> filmIds, Collection<Long> userIds);
 }
\ No newline at end of file
@@ -1,47 +1,347 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MPA;
+import ru.yandex.practicum.filmorate.storage.SortedLongArrays;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 
 @Slf4j
 @Component
+@Profile("in-memory")
 public class InMemoryFilmStorage implements FilmStorage {
-    private static long id = 0;
-    private final HashMap<Long, Film> films = new HashMap<>();
+    private static final int LOCK_STRIPES = 64;
+    private static final Comparator<Map.Entry<Long, Integer>> SCORE_ORDER =
+            Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private final AtomicLong id = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, Film> films = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, long[]> likesByFilm = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, long[]> likesByUser = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<PopularityKey> popularity = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<PopularityKey>> popularityByGenre =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<PopularityKey>> popularityByYear =
+            new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final MpaStorage mpaStorage;
+    private final GenreStorage genreStorage;
+
+    @Autowired
+    public InMemoryFilmStorage(MpaStorage mpaStorage, GenreStorage genreStorage) {
+        this.mpaStorage = mpaStorage;
+        this.genreStorage = genreStorage;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
 
     public List<Film> getFilms() {
-        return new ArrayList<>(films.values());
+        return films.values().stream()
+                .map(this::copy)
+                .collect(Collectors.toList());
+    }
+
+    public List<Film> getFilms(long afterId, int limit) {
+        return films.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(this::copy)
+                .collect(Collectors.toList());
+    }
+
+    public void streamFilms(Consumer<Film> consumer) {
+        films.values().forEach(film -> consumer.accept(copy(film)));
     }
 
     public Film create(Film film) {
-        if (!films.containsKey(film.getId())) {
-            id++;
-            film.setId(id);
+        film.setId(id.incrementAndGet());
+        Film stored = normalize(film);
+        stored.setRate(getLikes(stored.getId()).length);
+        synchronized (lockFor(stored.getId())) {
+            films.put(stored.getId(), stored);
+            index(stored);
         }
-        films.put(film.getId(), film);
+        film.setRate(stored.getRate());
+        film.setMpa(stored.getMpa());
+        film.setGenres(new ArrayList<>(stored.getGenres()));
         return film;
     }
 
+    public List<Film> createAll(List<Film> newFilms) {
+        newFilms.forEach(this::create);
+        return newFilms;
+    }
+
     public Film updateFilm(Film film) {
-        if (!films.containsKey(film.getId())) {
+        if (film.getId() == null) {
             throw new NotFoundException("Фильм не найден.");
         }
-        films.put(film.getId(), film);
+        synchronized (lockFor(film.getId())) {
+            Film existing = films.get(film.getId());
+            if (existing == null) {
+                throw new NotFoundException("Фильм не найден.");
+            }
+            Film stored = normalize(film);
+            stored.setRate(existing.getRate());
+            if (film.getGenres() == null) {
+                stored.setGenres(existing.getGenres());
+            }
+            unindex(existing);
+            films.put(stored.getId(), stored);
+            index(stored);
+            film.setRate(stored.getRate());
+            film.setMpa(stored.getMpa());
+            film.setGenres(new ArrayList<>(stored.getGenres()));
+        }
         return film;
     }
 
     public Film findFilmById(long id) {
-        if (!films.containsKey(id)) {
+        Film film = films.get(id);
+        if (film == null) {
             throw new NotFoundException("Фильм не найден.");
         }
-        return films.get(id);
+        return copy(film);
+    }
+
+    public List<Film> findFilmsByIds(long[] ids) {
+        List<Film> result = new ArrayList<>(ids.length);
+        for (long filmId : ids) {
+            Film film = films.get(filmId);
+            if (film != null) {
+                result.add(copy(film));
+            }
+        }
+        return result;
+    }
+
+    public List<Film> getPopular(int count, Integer genreId, Integer year) {
+        ConcurrentSkipListSet<PopularityKey> ranking = popularity;
+        if (genreId != null) {
+            ranking = popularityByGenre.get(genreId);
+        } else if (year != null) {
+            ranking = popularityByYear.get(year);
+        }
+        if (ranking == null) {
+            return new ArrayList<>();
+        }
+        Map<Long, Film> popular = new LinkedHashMap<>();
+        Iterator<PopularityKey> keys = ranking.iterator();
+        while (keys.hasNext() && popular.size() < count) {
+            Film film = films.get(keys.next().filmId);
+            if (film != null && (year == null || yearOf(film) == year)) {
+                popular.putIfAbsent(film.getId(), film);
+            }
+        }
+        return popular.values().stream().map(this::copy).collect(Collectors.toList());
+    }
+
+    public List<Film> getRecommendations(long userId, int neighbours, int count) {
+        long[] liked = getLikedFilms(userId);
+        Map<Long, Integer> overlaps = new HashMap<>();
+        for (long filmId : liked) {
+            for (long otherId : getLikes(filmId)) {
+                if (otherId != userId) {
+                    overlaps.merge(otherId, 1, Integer::sum);
+                }
+            }
+        }
+        Map<Long, Integer> scores = new HashMap<>();
+        overlaps.entrySet().stream()
+                .sorted(SCORE_ORDER)
+                .limit(neighbours)
+                .forEach(neighbour -> {
+                    for (long filmId : getLikedFilms(neighbour.getKey())) {
+                        if (!SortedLongArrays.contains(liked, filmId)) {
+                            scores.merge(filmId, neighbour.getValue(), Integer::sum);
+                        }
+                    }
+                });
+        return scores.entrySet().stream()
+                .sorted(SCORE_ORDER)
+                .map(score -> films.get(score.getKey()))
+                .filter(Objects::nonNull)
+                .limit(count)
+                .map(this::copy)
+                .collect(Collectors.toList());
+    }
+
+    public void addLike(long filmId, long userId) {
+        changeLikes(filmId, List.of(userId), List.of());
+    }
+
+    public void removeLike(long filmId, long userId) {
+        changeLikes(filmId, List.of(), List.of(userId));
+    }
+
+    public void applyLikes(long filmId, Collection<Long> likedBy, Collection<Long> unlikedBy) {
+        changeLikes(filmId, likedBy, unlikedBy);
+    }
+
+    public Map<Long, Set<Long>> findLikes(Collection<Long> filmIds, Collection<Long> userIds) {
+        Map<Long, Set<Long>> result = new HashMap<>();
+        for (long filmId : filmIds) {
+            long[] likes = getLikes(filmId);
+            for (long userId : userIds) {
+                if (SortedLongArrays.contains(likes, userId)) {
+                    result.computeIfAbsent(filmId, id -> new HashSet<>()).add(userId);
+                }
+            }
+        }
+        return result;
     }
-}
 
+    public long[] getLikedFilms(long userId) {
+        long[] liked = likesByUser.get(userId);
+        return liked == null ? SortedLongArrays.EMPTY : liked;
+    }
+
+    public long[] getLikes(long filmId) {
+        long[] likes = likesByFilm.get(filmId);
+        return likes == null ? SortedLongArrays.EMPTY : likes;
+    }
+
+    private void changeLikes(long filmId, Collection<Long> likedBy, Collection<Long> unlikedBy) {
+        synchronized (lockFor(filmId)) {
+            Film film = films.get(filmId);
+            if (film == null) {
+                throw new NotFoundException("Фильм не найден.");
+            }
+            int delta = 0;
+            for (long userId : likedBy) {
+                long[] likes = likesByFilm.get(filmId);
+                if (!SortedLongArrays.contains(likes, userId)) {
+                    likesByFilm.put(filmId, SortedLongArrays.insert(likes, userId));
+                    likesByUser.compute(userId, (user, liked) -> SortedLongArrays.insert(liked, filmId));
+                    delta++;
+                }
+            }
+            for (long userId : unlikedBy) {
+                long[] likes = likesByFilm.get(filmId);
+                if (SortedLongArrays.contains(likes, userId)) {
+                    long[] remaining = SortedLongArrays.remove(likes, userId);
+                    if (remaining == null) {
+                        likesByFilm.remove(filmId);
+                    } else {
+                        likesByFilm.put(filmId, remaining);
+                    }
+                    likesByUser.computeIfPresent(userId, (user, liked) -> SortedLongArrays.remove(liked, filmId));
+                    delta--;
+                }
+            }
+            if (delta != 0) {
+                unindex(film);
+                Film updated = copy(film);
+                updated.setRate(film.getRate() + delta);
+                films.put(filmId, updated);
+                index(updated);
+            }
+        }
+    }
+
+    private void index(Film film) {
+        PopularityKey key = new PopularityKey(film.getRate(), film.getId());
+        popularity.add(key);
+        for (Genre genre : film.getGenres()) {
+            popularityByGenre.computeIfAbsent(genre.getId(), id -> new ConcurrentSkipListSet<>()).add(key);
+        }
+        if (film.getReleaseDate() != null) {
+            popularityByYear.computeIfAbsent(yearOf(film), id -> new ConcurrentSkipListSet<>()).add(key);
+        }
+    }
+
+    private void unindex(Film film) {
+        PopularityKey key = new PopularityKey(film.getRate(), film.getId());
+        popularity.remove(key);
+        for (Genre genre : film.getGenres()) {
+            ConcurrentSkipListSet<PopularityKey> ranking = popularityByGenre.get(genre.getId());
+            if (ranking != null) {
+                ranking.remove(key);
+            }
+        }
+        if (film.getReleaseDate() != null) {
+            ConcurrentSkipListSet<PopularityKey> ranking = popularityByYear.get(yearOf(film));
+            if (ranking != null) {
+                ranking.remove(key);
+            }
+        }
+    }
+
+    private static int yearOf(Film film) {
+        return film.getReleaseDate() == null ? 0 : film.getReleaseDate().getYear();
+    }
+
+    private Film normalize(Film film) {
+        Film stored = copy(film);
+        if (film.getMpa() != null) {
+            MPA mpa = mpaStorage.findMPAById(film.getMpa().getId());
+            stored.setMpa(mpa == null ? film.getMpa() : mpa);
+        }
+        List<Genre> genres = new ArrayList<>();
+        if (film.getGenres() != null) {
+            film.getGenres().stream()
+                    .collect(Collectors.toMap(Genre::getId, genre -> genre, (a, b) -> a))
+                    .values().stream()
+                    .sorted(Comparator.comparingInt(Genre::getId))
+                    .forEach(genre -> {
+                        Genre known = genreStorage.findGenreById(genre.getId());
+                        genres.add(known == null ? genre : known);
+                    });
+        }
+        stored.setGenres(genres);
+        return stored;
+    }
+
+    private Film copy(Film film) {
+        Film.FilmBuilder builder = film.toBuilder();
+        if (film.getGenres() != null) {
+            builder.genres(new ArrayList<>(film.getGenres()));
+        }
+        return builder.build();
+    }
+
+    private Object lockFor(long filmId) {
+        return locks[(int) Math.floorMod(filmId, (long) LOCK_STRIPES)];
+    }
+
+    private static final class PopularityKey implements Comparable<PopularityKey> {
+        private final int rate;
+        private final long filmId;
+
+        private PopularityKey(int rate, long filmId) {
+            this.rate = rate;
+            this.filmId = filmId;
+        }
+
+        @Override
+        public int compareTo(PopularityKey other) {
+            int byRate = Integer.compare(other.rate, rate);
+            return byRate != 0 ? byRate : Long.compare(filmId, other.filmId);
+        }
+    }
+}
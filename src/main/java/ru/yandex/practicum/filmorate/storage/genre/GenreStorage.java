@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.storage.genre;
+
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.List;
+
+public interface GenreStorage {
+    Genre findGenreById(int id);
+
+    List<Genre> getGenreList();
+
+    void refresh();
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.storage.genre;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.List;
+
+@Component
+@Profile("in-memory")
+public class InMemoryGenreStorage implements GenreStorage {
+    private static final List<Genre> GENRES = List.of(
+            new Genre(1, "Комедия"),
+            new Genre(2, "Драма"),
+            new Genre(3, "Мультфильм"),
+            new Genre(4, "Триллер"),
+            new Genre(5, "Документальный"),
+            new Genre(6, "Боевик"));
+
+    @Override
+    public Genre findGenreById(int id) {
+        return id > 0 && id <= GENRES.size() ? GENRES.get(id - 1) : null;
+    }
+
+    @Override
+    public List<Genre> getGenreList() {
+        return GENRES;
+    }
+
+    @Override
+    public void refresh() {
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.storage.mpa;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.MPA;
+
+import java.util.List;
+
+@Component
+@Profile("in-memory")
+public class InMemoryMpaStorage implements MpaStorage {
+    private static final List<MPA> RATINGS = List.of(
+            new MPA(1, "G"),
+            new MPA(2, "PG"),
+            new MPA(3, "PG-13"),
+            new MPA(4, "R"),
+            new MPA(5, "NC-17"));
+
+    @Override
+    public MPA findMPAById(int id) {
+        return id > 0 && id <= RATINGS.size() ? RATINGS.get(id - 1) : null;
+    }
+
+    @Override
+    public List<MPA> getMPAList() {
+        return RATINGS;
+    }
+
+    @Override
+    public void refresh() {
+    }
+}
@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.storage.mpa;
+
+import ru.yandex.practicum.filmorate.model.MPA;
+
+import java.util.List;
+
+public interface MpaStorage {
+    MPA findMPAById(int id);
+
+    List<MPA> getMPAList();
+
+    void refresh();
+}
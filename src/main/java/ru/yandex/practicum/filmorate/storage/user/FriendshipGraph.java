@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import ru.yandex.practicum.filmorate.storage.SortedLongArrays;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class FriendshipGraph {
+    private final ConcurrentHashMap<Long, long[]> adjacency = new ConcurrentHashMap<>();
+
+    public void setFriends(long userId, long[] friends) {
+        adjacency.put(userId, friends);
+    }
+
+    public long[] friends(long userId) {
+        return adjacency.getOrDefault(userId, SortedLongArrays.EMPTY);
+    }
+
+    public int degree(long userId) {
+        return friends(userId).length;
+    }
+
+    public long[] commonFriends(long userId, long otherId) {
+        return SortedLongArrays.intersect(friends(userId), friends(otherId));
+    }
+
+    public long[] suggestFriends(long userId, int limit) {
+        long[] friends = friends(userId);
+        long[][] candidates = new long[friends.length][];
+        int[] positions = new int[friends.length];
+        PriorityQueue<Integer> cursors = new PriorityQueue<>(Math.max(1, friends.length),
+                Comparator.comparingLong(i -> candidates[i][positions[i]]));
+        for (int i = 0; i < friends.length; i++) {
+            candidates[i] = friends(friends[i]);
+            if (candidates[i].length > 0) {
+                cursors.add(i);
+            }
+        }
+        PriorityQueue<long[]> top = new PriorityQueue<>(limit + 1,
+                Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> -entry[1]));
+        while (!cursors.isEmpty()) {
+            int first = cursors.peek();
+            long candidate = candidates[first][positions[first]];
+            long mutual = 0;
+            while (!cursors.isEmpty() && candidates[cursors.peek()][positions[cursors.peek()]] == candidate) {
+                int cursor = cursors.poll();
+                mutual++;
+                if (++positions[cursor] < candidates[cursor].length) {
+                    cursors.add(cursor);
+                }
+            }
+            if (candidate != userId && !SortedLongArrays.contains(friends, candidate)) {
+                top.add(new long[]{mutual, candidate});
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        long[] result = new long[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = top.poll()[1];
+        }
+        return result;
+    }
+
+    public boolean addFriend(long userId, long friendId) {
+        boolean[] added = new boolean[1];
+        adjacency.compute(userId, (user, friends) -> {
+            long[] result = SortedLongArrays.insert(friends, friendId);
+            added[0] = result != friends;
+            return result;
+        });
+        return added[0];
+    }
+
+    public boolean removeFriend(long userId, long friendId) {
+        boolean[] removed = new boolean[1];
+        adjacency.computeIfPresent(userId, (user, friends) -> {
+            long[] result = SortedLongArrays.remove(friends, friendId);
+            removed[0] = result != friends;
+            return result;
+        });
+        return removed[0];
+    }
+}
@@ -1,79 +1,142 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.SortedLongArrays;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 
 @Slf4j
 @Component
+@Profile("in-memory")
 public class InMemoryUserStorage implements UserStorage {
-    private static long id = 0;
-    private final HashMap<Long, User> users = new HashMap<>();
+    private final AtomicLong id = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, User> users = new ConcurrentSkipListMap<>();
+    private final FriendshipGraph friendshipGraph = new FriendshipGraph();
+    private final InMemoryFilmStorage filmStorage;
+
+    @Autowired
+    public InMemoryUserStorage(InMemoryFilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
 
     public List<User> getUsers() {
-        return new ArrayList<>(users.values());
+        return users.values().stream()
+                .map(this::hydrate)
+                .collect(Collectors.toList());
+    }
+
+    public List<User> getUsers(long afterId, int limit) {
+        return users.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(this::hydrate)
+                .collect(Collectors.toList());
     }
 
     @Override
     public User create(User user) {
-        if (!users.containsKey(user.getId())) {
-            id++;
-            user.setId(id);
-        }
-        users.put(user.getId(), user);
+        user.setId(id.incrementAndGet());
+        users.put(user.getId(), store(user));
         return user;
     }
 
+    @Override
+    public List<User> createAll(List<User> newUsers) {
+        newUsers.forEach(this::create);
+        return newUsers;
+    }
+
     @Override
     public User update(User user) {
-        if (!users.containsKey(user.getId())) {
+        if (user.getId() == null || users.replace(user.getId(), store(user)) == null) {
             throw new NotFoundException("Пользователь не найден.");
         }
-        users.put(user.getId(), user);
         return user;
     }
 
     @Override
     public User findUserById(long id) {
-        if (!users.containsKey(id)) {
+        User user = users.get(id);
+        if (user == null) {
             throw new NotFoundException("Пользователь не найден.");
         }
-        return users.get(id);
+        return hydrate(user);
+    }
+
+    @Override
+    public boolean exists(long id) {
+        return users.containsKey(id);
+    }
+
+    @Override
+    public boolean existsAll(Collection<Long> ids) {
+        return ids.stream().allMatch(users::containsKey);
     }
 
     @Override
     public List<User> getFriends(long id) {
-        return null;
+        return findUsers(friendshipGraph.friends(id));
     }
 
     @Override
     public List<User> getCommonFriends(long id, long otherId) {
-        return null;
+        return findUsers(friendshipGraph.commonFriends(id, otherId));
     }
 
     @Override
-    public void addFriend(long id, long friendId) {
-
+    public int getFriendsCount(long id) {
+        return friendshipGraph.degree(id);
     }
 
     @Override
-    public void removeFriend(long id, long friendId) {
+    public List<User> getFriendSuggestions(long id, int limit) {
+        return findUsers(friendshipGraph.suggestFriends(id, limit));
+    }
 
+    @Override
+    public void addFriend(long id, long friendId) {
+        friendshipGraph.addFriend(id, friendId);
     }
 
     @Override
-    public void addFilmsLike(long filmId, long userId) {
+    public void removeFriend(long id, long friendId) {
+        friendshipGraph.removeFriend(id, friendId);
+    }
 
+    private List<User> findUsers(long[] ids) {
+        List<User> result = new ArrayList<>(ids.length);
+        for (long userId : ids) {
+            User user = users.get(userId);
+            if (user != null) {
+                result.add(hydrate(user));
+            }
+        }
+        return result;
     }
 
-    @Override
-    public void removeFilmLike(long filmId, long userId) {
+    private User store(User user) {
+        return user.toBuilder()
+                .name(user.getName())
+                .friends(null)
+                .build();
+    }
 
+    private User hydrate(User user) {
+        User result = user.toBuilder()
+                .friends(SortedLongArrays.toSet(friendshipGraph.friends(user.getId())))
+                .build();
+        result.getFilmsLike().addAll(SortedLongArrays.toSet(filmStorage.getLikedFilms(user.getId())));
+        return result;
     }
 }
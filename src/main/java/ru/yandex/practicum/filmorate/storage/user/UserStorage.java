@@ -3,26 +3,35 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface UserStorage {
     List<User> getUsers();
 
+    List<User> getUsers(long afterId, int limit);
+
     User create(User user);
 
+    List<User> createAll(List<User> users);
+
     User update(User user);
 
     User findUserById(long id);
 
+    boolean exists(long id);
+
+    boolean existsAll(Collection<Long> ids);
+
     List<User> getFriends(long id);
 
     List<User> getCommonFriends(long id, long otherId);
 
-    void addFriend(long id, long friendId);
+    int getFriendsCount(long id);
 
-    void removeFriend(long id, long friendId);
+    List<User> getFriendSuggestions(long id, int limit);
 
-    void addFilmsLike(long filmId, long userId);
+    void addFriend(long id, long friendId);
 
-    void removeFilmLike(long filmId, long userId);
+    void removeFriend(long id, long friendId);
 }
@@ -1,12 +0,0 @@
-INSERT INTO Genre (name) VALUES ('Комедия');
-INSERT INTO Genre (name) VALUES ('Драма');
-INSERT INTO Genre (name) VALUES ('Мультфильм');
-INSERT INTO Genre (name) VALUES ('Триллер');
-INSERT INTO Genre (name) VALUES ('Документальный');
-INSERT INTO Genre (name) VALUES ('Боевик');
-
-INSERT INTO Age_rating (name) VALUES ('G');
-INSERT INTO Age_rating (name) VALUES ('PG');
-INSERT INTO Age_rating (name) VALUES ('PG-13');
-INSERT INTO Age_rating (name) VALUES ('R');
-INSERT INTO Age_rating (name) VALUES ('NC-17');
\ No newline at end of file
@@ -1,11 +1,3 @@
-DROP TABLE IF EXISTS Users CASCADE;
-DROP TABLE IF EXISTS Friendship CASCADE;
-DROP TABLE IF EXISTS Genre CASCADE;
-DROP TABLE IF EXISTS Age_rating CASCADE;
-DROP TABLE IF EXISTS Film CASCADE;
-DROP TABLE IF EXISTS Film_like CASCADE;
-DROP TABLE IF EXISTS FilmGenre CASCADE;
-
 CREATE TABLE IF NOT EXISTS Users (
   user_id INT PRIMARY KEY AUTO_INCREMENT,
   login VARCHAR(255),
@@ -39,7 +31,7 @@ CREATE TABLE IF NOT EXISTS Film (
   description VARCHAR(255),
   release_date DATE,
   duration BIGINT,
-  rate INT,
+  rate INT DEFAULT 0 NOT NULL,
   age_id INT,
   FOREIGN KEY(age_id) REFERENCES Age_rating(age_id)
 );
@@ -58,4 +50,17 @@ CREATE TABLE IF NOT EXISTS Film_like (
   PRIMARY KEY(user_id, film_id),
   FOREIGN KEY(user_id) REFERENCES Users(user_id),
   FOREIGN KEY(film_id) REFERENCES Film(film_id)
-);
\ No newline at end of file
+);
+
+INSERT INTO Genre (name) VALUES ('Комедия');
+INSERT INTO Genre (name) VALUES ('Драма');
+INSERT INTO Genre (name) VALUES ('Мультфильм');
+INSERT INTO Genre (name) VALUES ('Триллер');
+INSERT INTO Genre (name) VALUES ('Документальный');
+INSERT INTO Genre (name) VALUES ('Боевик');
+
+INSERT INTO Age_rating (name) VALUES ('G');
+INSERT INTO Age_rating (name) VALUES ('PG');
+INSERT INTO Age_rating (name) VALUES ('PG-13');
+INSERT INTO Age_rating (name) VALUES ('R');
+INSERT INTO Age_rating (name) VALUES ('NC-17');
@@ -0,0 +1,9 @@
+CREATE INDEX IF NOT EXISTS friendship_friend_idx ON Friendship (friend_id, user_id);
+
+CREATE INDEX IF NOT EXISTS film_rate_idx ON Film (rate DESC, film_id);
+
+CREATE INDEX IF NOT EXISTS film_release_date_idx ON Film (release_date);
+
+CREATE INDEX IF NOT EXISTS film_genre_genre_idx ON FilmGenre (genre_id, film_id);
+
+CREATE INDEX IF NOT EXISTS film_like_film_idx ON Film_like (film_id, user_id);
@@ -1,6 +1,5 @@
 package ru.yandex.practicum.filmorate;
 
-import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
@@ -9,6 +8,7 @@ import org.springframework.test.annotation.DirtiesContext;
 import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
 import ru.yandex.practicum.filmorate.dao.UserDbStorage;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.MPA;
 import ru.yandex.practicum.filmorate.model.User;
 
@@ -16,19 +16,22 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.core.Is.is;
 
 
 @SpringBootTest
 @AutoConfigureTestDatabase
-@RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 class FilmorateApplicationTests {
-    private final UserDbStorage userDbStorage;
-    private final FilmDbStorage filmDbStorage;
+    @Autowired
+    private UserDbStorage userDbStorage;
+    @Autowired
+    private FilmDbStorage filmDbStorage;
 
     @Test
     public void checkCreatedUserFindUserById() {
@@ -67,10 +70,10 @@ class FilmorateApplicationTests {
         List<User> listToCompare = new ArrayList<>();
         User user1ToCompare = User.builder().id(1L).email("qwe@mail.com").name("UserName1")
                 .birthday(LocalDate.of(1990, 6, 9)).login("UserLogin")
-                .build();
+                .friends(new HashSet<>()).build();
         User user2ToCompare = User.builder().id(2L).email("asd@mail.com").name("UserName2")
                 .birthday(LocalDate.of(1986, 1, 2)).login("UserLogin2")
-                .build();
+                .friends(new HashSet<>()).build();
         listToCompare.add(user1ToCompare);
         listToCompare.add(user2ToCompare);
         assertThat(userDbStorage.getUsers(), is(equalTo(listToCompare)));
@@ -129,4 +132,144 @@ class FilmorateApplicationTests {
         listToCompare.add(film2ToCompare);
         assertThat(filmDbStorage.getFilms(), is(equalTo(listToCompare)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void checkPopularFilmsOrderedByLikes() {
+        for (int i = 1; i <= 3; i++) {
+            filmDbStorage.create(Film.builder().name("Name" + i).description("Description" + i)
+                    .releaseDate(LocalDate.of(2000, 1, i)).duration(100L)
+                    .mpa(MPA.builder().id(1).build()).build());
+            userDbStorage.create(User.builder().email("user" + i + "@mail.com").name("UserName" + i)
+                    .birthday(LocalDate.of(1990, 1, i)).login("UserLogin" + i).build());
+        }
+        filmDbStorage.addLike(2L, 1L);
+        filmDbStorage.addLike(2L, 2L);
+        filmDbStorage.addLike(3L, 1L);
+        List<Film> popular = filmDbStorage.getPopular(2, null, null);
+        assertThat(popular.size(), is(2));
+        assertThat(popular.get(0).getId(), is(2L));
+        assertThat(popular.get(0).getRate(), is(2));
+        assertThat(popular.get(1).getId(), is(3L));
+    }
+
+    @Test
+    public void checkFilmsPageStartsAfterCursor() {
+        for (int i = 1; i <= 5; i++) {
+            filmDbStorage.create(Film.builder().name("Name" + i).description("Description" + i)
+                    .releaseDate(LocalDate.of(2000, 1, i)).duration(100L)
+                    .mpa(MPA.builder().id(1).build()).build());
+        }
+        List<Film> page = filmDbStorage.getFilms(2L, 2);
+        assertThat(page.size(), is(2));
+        assertThat(page.get(0).getId(), is(3L));
+        assertThat(page.get(1).getId(), is(4L));
+        assertThat(filmDbStorage.getFilms(4L, 10).size(), is(1));
+    }
+
+    @Test
+    public void checkUpdatedFilmGenresReturnedSortedWithoutDuplicates() {
+        filmDbStorage.create(Film.builder().name("Name").description("Description")
+                .releaseDate(LocalDate.of(1995, 12, 27)).duration(120L)
+                .mpa(MPA.builder().id(3).build())
+                .genres(List.of(new Genre(2, null), new Genre(1, null), new Genre(1, null))).build());
+        Film updated = filmDbStorage.updateFilm(Film.builder().id(1L).name("Name").description("Description")
+                .releaseDate(LocalDate.of(1995, 12, 27)).duration(120L)
+                .mpa(MPA.builder().id(3).build())
+                .genres(List.of(new Genre(3, null), new Genre(1, null))).build());
+        assertThat(updated.getGenres().size(), is(2));
+        assertThat(updated.getGenres().get(0).getId(), is(1));
+        assertThat(updated.getGenres().get(1).getId(), is(3));
+        assertThat(filmDbStorage.findFilmById(1L).getGenres(), is(equalTo(updated.getGenres())));
+    }
+
+    @Test
+    public void checkCreateAllAssignsGeneratedIds() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            films.add(Film.builder().name("Name" + i).description("Description" + i)
+                    .releaseDate(LocalDate.of(2000, 1, i)).duration(100L)
+                    .mpa(MPA.builder().id(1).build())
+                    .genres(List.of(new Genre(i, null))).build());
+        }
+        filmDbStorage.createAll(films);
+        assertThat(films.get(0).getId(), is(1L));
+        assertThat(films.get(2).getId(), is(3L));
+        assertThat(filmDbStorage.findFilmById(3L).getGenres().get(0).getId(), is(3));
+
+        List<User> users = List.of(
+                User.builder().email("a@mail.com").login("a").birthday(LocalDate.of(1990, 1, 1)).build(),
+                User.builder().email("b@mail.com").login("b").birthday(LocalDate.of(1990, 1, 2)).build());
+        userDbStorage.createAll(users);
+        assertThat(userDbStorage.findUserById(2L).getLogin(), is("b"));
+    }
+
+    @Test
+    public void checkApplyLikesCountsOnlyChangedRows() {
+        filmDbStorage.create(Film.builder().name("Name").description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1)).duration(100L)
+                .mpa(MPA.builder().id(1).build()).build());
+        for (int i = 1; i <= 3; i++) {
+            userDbStorage.create(User.builder().email("user" + i + "@mail.com").login("login" + i)
+                    .birthday(LocalDate.of(1990, 1, i)).build());
+        }
+        filmDbStorage.addLike(1L, 1L);
+        filmDbStorage.applyLikes(1L, List.of(1L, 2L, 3L), List.of());
+        assertThat(filmDbStorage.findFilmById(1L).getRate(), is(3));
+        filmDbStorage.applyLikes(1L, List.of(), List.of(2L, 2L));
+        assertThat(filmDbStorage.findFilmById(1L).getRate(), is(2));
+    }
+
+    @Test
+    public void checkRecommendationsComeFromUsersWithOverlappingLikes() {
+        for (int i = 1; i <= 4; i++) {
+            filmDbStorage.create(Film.builder().name("Name" + i).description("Description" + i)
+                    .releaseDate(LocalDate.of(2000, 1, i)).duration(100L)
+                    .mpa(MPA.builder().id(1).build()).build());
+        }
+        for (int i = 1; i <= 3; i++) {
+            userDbStorage.create(User.builder().email("user" + i + "@mail.com").login("login" + i)
+                    .birthday(LocalDate.of(1990, 1, i)).build());
+        }
+        filmDbStorage.applyLikes(1L, List.of(1L, 2L), List.of());
+        filmDbStorage.applyLikes(2L, List.of(1L, 2L, 3L), List.of());
+        filmDbStorage.addLike(3L, 2L);
+        filmDbStorage.addLike(4L, 3L);
+
+        List<Film> recommendations = filmDbStorage.getRecommendations(1L, 10, 10);
+        assertThat(recommendations.size(), is(2));
+        assertThat(recommendations.get(0).getId(), is(3L));
+        assertThat(recommendations.get(1).getId(), is(4L));
+        assertThat(filmDbStorage.getRecommendations(1L, 1, 10).size(), is(1));
+    }
+
+    @Test
+    public void checkPopularFilmsFilteredByGenreAndYear() {
+        int[][] specs = {{2000, 1}, {2001, 1, 2}, {2001, 2}};
+        for (int[] spec : specs) {
+            List<Genre> genres = new ArrayList<>();
+            for (int i = 1; i < spec.length; i++) {
+                genres.add(new Genre(spec[i], null));
+            }
+            filmDbStorage.create(Film.builder().name("Name").description("Description")
+                    .releaseDate(LocalDate.of(spec[0], 6, 1)).duration(100L).genres(genres)
+                    .mpa(MPA.builder().id(1).build()).build());
+        }
+        for (int i = 1; i <= 2; i++) {
+            userDbStorage.create(User.builder().email("user" + i + "@mail.com").login("login" + i)
+                    .birthday(LocalDate.of(1990, 1, i)).build());
+        }
+        filmDbStorage.addLike(3L, 1L);
+        filmDbStorage.addLike(3L, 2L);
+        filmDbStorage.addLike(2L, 1L);
+
+        assertThat(ids(filmDbStorage.getPopular(10, 1, null)), contains(2L, 1L));
+        assertThat(ids(filmDbStorage.getPopular(10, null, 2001)), contains(3L, 2L));
+        assertThat(ids(filmDbStorage.getPopular(1, 2, 2001)), contains(3L));
+        assertThat(ids(filmDbStorage.getPopular(10, 1, 2000)), contains(1L));
+        assertThat(filmDbStorage.getPopular(10, 3, null).isEmpty(), is(true));
+    }
+
+    private static List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+}
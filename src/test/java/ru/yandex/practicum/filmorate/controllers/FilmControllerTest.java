@@ -0,0 +1,165 @@
+package ru.yandex.practicum.filmorate.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.core.Is.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "filmorate.import.batch-size=2")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class FilmControllerTest {
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+
+    @Test
+    public void batchFromJsonArrayIsolatesFailingRow() throws Exception {
+        String body = "[" + film("Name1") + "," + film("N".repeat(300)) + "," + film("") + ","
+                + film("Name4") + "]";
+        mockMvc.perform(post("/films/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[0].id", notNullValue()))
+                .andExpect(jsonPath("$[1].status", is("FAILED")))
+                .andExpect(jsonPath("$[2].status", is("INVALID")))
+                .andExpect(jsonPath("$[3].status", is("CREATED")));
+
+        mockMvc.perform(get("/films"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", is("Name1")))
+                .andExpect(jsonPath("$[1].name", is("Name4")));
+    }
+
+    @Test
+    public void batchFromNdjsonMarksMalformedLineAndKeepsGoing() throws Exception {
+        String body = film("Name1") + "\n" + film("Name2") + "\n{\"name\":\n\n" + film("Name4") + "\n";
+        mockMvc.perform(post("/films/batch").contentType(NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].status", is("CREATED")))
+                .andExpect(jsonPath("$[2].status", is("FAILED")))
+                .andExpect(jsonPath("$[2].errors[0]", startsWith("Строка 3")))
+                .andExpect(jsonPath("$[3].status", is("CREATED")));
+
+        mockMvc.perform(get("/films")).andExpect(jsonPath("$", hasSize(3)));
+    }
+
+    @Test
+    public void exportStreamsOneFilmPerLine() throws Exception {
+        String body = "[" + film("Name1") + "," + film("Name2") + "]";
+        mockMvc.perform(post("/films/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(get("/films/export"))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().contentTypeCompatibleWith(NDJSON))
+                .andReturn();
+        assertThat(result.getRequest().getAsyncContext().getTimeout(), is(Duration.ofMinutes(5).toMillis()));
+
+        String content = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<String> lines = content.lines().collect(Collectors.toList());
+        assertThat(lines.size(), is(2));
+        assertThat(objectMapper.readValue(lines.get(0), Film.class).getName(), is("Name1"));
+        assertThat(objectMapper.readValue(lines.get(1), Film.class).getId(), is(2L));
+    }
+
+    @Test
+    public void pagesFollowNextCursorAndRejectInvalidParameters() throws Exception {
+        String body = "[" + film("Name1") + "," + film("Name2") + "," + film("Name3") + "]";
+        mockMvc.perform(post("/films/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/films").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(1, 2)))
+                .andExpect(jsonPath("$.nextCursor", is(2)));
+        mockMvc.perform(get("/films").param("limit", "2").param("afterId", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(3)))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+
+        mockMvc.perform(get("/films").param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films").param("limit", "two")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films").param("limit", "2").param("afterId", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films").param("limit", "2").param("afterId", "first"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void updateKeepsLikeCounterMaintainedByLikes() throws Exception {
+        mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"user@mail.ru\",\"login\":\"login\",\"birthday\":\"1990-01-01\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON)
+                        .content(film("Name1").replace("{", "{\"rate\":5,")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rate", is(0)));
+        mockMvc.perform(put("/films/1/like/1")).andExpect(status().isOk());
+
+        mockMvc.perform(put("/films").contentType(MediaType.APPLICATION_JSON)
+                        .content(film("Name2").replace("{", "{\"id\":1,\"rate\":0,")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rate", is(1)));
+        mockMvc.perform(get("/films/1"))
+                .andExpect(jsonPath("$.name", is("Name2")))
+                .andExpect(jsonPath("$.rate", is(1)));
+    }
+
+    @Test
+    public void popularRejectsInvalidParameters() throws Exception {
+        mockMvc.perform(get("/films/popular").param("count", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films/popular").param("count", "-3")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films/popular").param("count", "1")).andExpect(status().isOk());
+    }
+
+    @Test
+    public void popularRejectsYearOutsideDateRange() throws Exception {
+        mockMvc.perform(get("/films/popular").param("year", "1000000000")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films/popular").param("year", String.valueOf(Integer.MIN_VALUE)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films/popular").param("year", "2000")).andExpect(status().isOk());
+    }
+
+    private static String film(String name) {
+        return "{\"name\":\"" + name + "\",\"description\":\"Description\",\"releaseDate\":\"2000-01-01\","
+                + "\"duration\":100,\"mpa\":{\"id\":1}}";
+    }
+}
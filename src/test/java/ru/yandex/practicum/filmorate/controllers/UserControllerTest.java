@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class UserControllerTest {
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final MockMvc mockMvc;
+
+    @Test
+    public void pagesFollowNextCursorAndRejectInvalidParameters() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 3; i++) {
+            body.append("{\"email\":\"user").append(i).append("@mail.ru\",\"login\":\"login").append(i)
+                    .append("\",\"birthday\":\"1990-01-01\"}\n");
+        }
+        mockMvc.perform(post("/users/batch").contentType(NDJSON).content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].status", contains("CREATED", "CREATED", "CREATED")));
+
+        mockMvc.perform(get("/users").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(1, 2)))
+                .andExpect(jsonPath("$.nextCursor", is(2)));
+        mockMvc.perform(get("/users").param("limit", "2").param("afterId", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].login", contains("login3")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+
+        mockMvc.perform(get("/users").param("limit", "-1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users").param("limit", "many")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users").param("limit", "2").param("afterId", "-5"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users").param("limit", "2").param("afterId", "last"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MPA;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class DictionaryStorageTest {
+    private final GenreDbStorage genreStorage;
+    private final MpaDbStorage mpaStorage;
+    private final FilmDbStorage filmDbStorage;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void dictionariesAreIndexedByIdAndUnmodifiable() {
+        assertThat(genreStorage.findGenreById(1), is(new Genre(1, "Комедия")));
+        assertThat(genreStorage.findGenreById(6), sameInstance(genreStorage.getGenreList().get(5)));
+        assertThat(genreStorage.findGenreById(0), nullValue());
+        assertThat(genreStorage.findGenreById(7), nullValue());
+        assertThat(mpaStorage.findMPAById(3), is(new MPA(3, "PG-13")));
+        assertThat(mpaStorage.findMPAById(6), nullValue());
+
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> genreStorage.getGenreList().add(new Genre(7, "Вестерн")));
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> mpaStorage.getMPAList().remove(0));
+    }
+
+    @Test
+    public void filmsShareImmutableDictionaryInstances() throws Exception {
+        Film film = objectMapper.readValue("{\"name\":\"Name\",\"description\":\"Description\"," +
+                "\"releaseDate\":\"2000-01-01\",\"duration\":100,\"mpa\":{\"id\":3}," +
+                "\"genres\":[{\"id\":2}]}", Film.class);
+        assertThat(film.getMpa(), is(new MPA(3, null)));
+
+        long filmId = filmDbStorage.create(film).getId();
+        Film found = filmDbStorage.findFilmById(filmId);
+
+        assertThat(found.getMpa(), sameInstance(mpaStorage.findMPAById(3)));
+        assertThat(found.getGenres(), is(List.of(genreStorage.findGenreById(2))));
+        assertThat(found.getGenres().get(0), sameInstance(genreStorage.findGenreById(2)));
+        assertThat(found.getReleaseDate(), is(LocalDate.of(2000, 1, 1)));
+    }
+
+    @Test
+    public void refreshPicksUpRowsAddedAfterStartup() {
+        List<Genre> genresBefore = genreStorage.getGenreList();
+        jdbcTemplate.update("INSERT INTO Genre (genre_id, name) VALUES (7, 'Вестерн')");
+        jdbcTemplate.update("INSERT INTO Age_rating (age_id, name) VALUES (6, 'X')");
+        assertThat(genreStorage.findGenreById(7), nullValue());
+        assertThat(mpaStorage.findMPAById(6), nullValue());
+
+        genreStorage.refresh();
+        mpaStorage.refresh();
+
+        assertThat(genreStorage.findGenreById(7), is(new Genre(7, "Вестерн")));
+        assertThat(genreStorage.getGenreList().size(), is(7));
+        assertThat(genresBefore.size(), is(6));
+        assertThat(mpaStorage.findMPAById(6), is(new MPA(6, "X")));
+        assertThat(mpaStorage.getMPAList().get(5), sameInstance(mpaStorage.findMPAById(6)));
+    }
+}
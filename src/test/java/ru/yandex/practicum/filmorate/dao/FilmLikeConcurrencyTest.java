@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MPA;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class FilmLikeConcurrencyTest {
+    private static final int USERS = 400;
+    private static final int THREADS = 16;
+
+    private final FilmDbStorage filmDbStorage;
+    private final UserDbStorage userDbStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void concurrentLikesAndUnlikesKeepRateConsistent() throws Exception {
+        long filmId = filmDbStorage.create(Film.builder().name("Name").description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1)).duration(100L)
+                .mpa(MPA.builder().id(1).build()).build()).getId();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder().email("user" + i + "@mail.com").login("login" + i)
+                    .birthday(LocalDate.of(1990, 1, 1)).build());
+        }
+        userDbStorage.createAll(users);
+
+        runTwicePerUser(users, userId -> filmDbStorage.addLike(filmId, userId));
+        assertThat(filmDbStorage.findFilmById(filmId).getRate(), is(USERS));
+        assertThat(countLikes(filmId), is(USERS));
+
+        runTwicePerUser(users.subList(0, USERS / 2), userId -> filmDbStorage.removeLike(filmId, userId));
+        assertThat(filmDbStorage.findFilmById(filmId).getRate(), is(USERS / 2));
+        assertThat(countLikes(filmId), is(USERS / 2));
+        assertThat(filmDbStorage.findLikes(List.of(filmId, filmId + 1), List.of(1L, (long) USERS)),
+                is(Map.of(filmId, Set.of((long) USERS))));
+    }
+
+    private void runTwicePerUser(List<User> users, LongConsumer action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int attempt = 0; attempt < 2; attempt++) {
+                for (User user : users) {
+                    futures.add(executor.submit(() -> action.accept(user.getId())));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private int countLikes(long filmId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Film_like WHERE film_id = ?",
+                Integer.class, filmId);
+        return count == null ? 0 : count;
+    }
+}
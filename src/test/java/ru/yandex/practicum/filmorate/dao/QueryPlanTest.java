@@ -0,0 +1,170 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsStringIgnoringCase;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class QueryPlanTest {
+    private static final int FILMS = 300;
+    private static final int USERS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final MpaStorage mpaStorage;
+    private final GenreStorage genreStorage;
+    private final Flyway flyway;
+
+    @Test
+    public void popularFilmsAreReadInRateIndexOrder() {
+        String plan = explain(filmStorage -> filmStorage.getPopular(10, null, null));
+        assertThat(plan, containsStringIgnoringCase("film_rate_idx"));
+        assertThat(plan, containsStringIgnoringCase("index sorted"));
+        assertThat(plan, not(containsStringIgnoringCase("tableScan")));
+    }
+
+    @Test
+    public void popularFilmsOfYearAreFoundThroughReleaseDateIndex() {
+        String plan = explain(filmStorage -> filmStorage.getPopular(10, 1, 2000));
+        assertThat(plan, containsStringIgnoringCase("film_release_date_idx"));
+        assertThat(plan, not(containsStringIgnoringCase("tableScan")));
+    }
+
+    @Test
+    public void recommendationNeighboursJoinLikesByFilm() {
+        String plan = explain(filmStorage -> filmStorage.getRecommendations(1L, 10, 10));
+        assertThat(plan, containsStringIgnoringCase("film_like_film_idx"));
+        assertThat(plan, not(containsStringIgnoringCase("tableScan")));
+    }
+
+    @Test
+    public void filmsPageIsReadByPrimaryKeyRange() {
+        String plan = explain(filmStorage -> filmStorage.getFilms(5L, 10));
+        assertThat(plan, containsStringIgnoringCase("film_id > ?1"));
+        assertThat(plan, not(containsStringIgnoringCase("tableScan")));
+    }
+
+    @Test
+    public void userFriendsAndLikesAreAggregatedThroughIndexes() {
+        String plan = explainUsers(userStorage -> userStorage.findUserById(1L));
+        assertThat(plan, containsStringIgnoringCase("user_id = ?1"));
+        assertThat(plan, not(containsStringIgnoringCase("tableScan")));
+
+        String page = explainUsers(userStorage -> userStorage.getUsers(5L, 10));
+        assertThat(page, containsStringIgnoringCase("index sorted"));
+        assertThat(page, not(containsStringIgnoringCase("tableScan")));
+    }
+
+    @Test
+    public void friendQueriesLoadUsersByPrimaryKey() {
+        String common = explainUsers(userStorage -> userStorage.getCommonFriends(1L, 12L));
+        assertThat(common, containsStringIgnoringCase("user_id in("));
+        assertThat(common, not(containsStringIgnoringCase("tableScan")));
+        String suggestions = explainUsers(userStorage -> userStorage.getFriendSuggestions(1L, 10));
+        assertThat(suggestions, containsStringIgnoringCase("user_id in("));
+        assertThat(suggestions, not(containsStringIgnoringCase("tableScan")));
+    }
+
+    @Test
+    public void repeatedMigrationKeepsExistingData() {
+        jdbcTemplate.update("INSERT INTO Users (login, name, email, birthday) VALUES ('login', 'name', 'a@b.c', ?)",
+                LocalDate.of(1990, 1, 1));
+
+        assertThat(flyway.migrate().migrationsExecuted, is(0));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Users", Integer.class), is(1));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Genre", Integer.class), is(6));
+    }
+
+    private String explain(StorageCall<FilmDbStorage> call) {
+        ExplainingJdbcTemplate explaining = seed();
+        call.run(new FilmDbStorage(explaining, mpaStorage, genreStorage));
+        return String.join("\n", explaining.plans);
+    }
+
+    private String explainUsers(StorageCall<UserDbStorage> call) {
+        ExplainingJdbcTemplate explaining = seed();
+        UserDbStorage userStorage = new UserDbStorage(explaining);
+        userStorage.loadFriendships();
+        explaining.plans.clear();
+        call.run(userStorage);
+        return String.join("\n", explaining.plans);
+    }
+
+    private ExplainingJdbcTemplate seed() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Film", Integer.class) == 0) {
+            List<Object[]> films = new ArrayList<>();
+            List<Object[]> genres = new ArrayList<>();
+            for (int i = 1; i <= FILMS; i++) {
+                films.add(new Object[]{LocalDate.of(1990 + i % 30, 1, 1), i % 17});
+                genres.add(new Object[]{i, i % 6 + 1});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO Film (name, description, release_date, duration, rate, age_id) " +
+                    "VALUES ('Name', 'Description', ?, 100, ?, 1)", films);
+            jdbcTemplate.batchUpdate("INSERT INTO FilmGenre (film_id, genre_id) VALUES (?, ?)", genres);
+
+            List<Object[]> users = new ArrayList<>();
+            List<Object[]> likes = new ArrayList<>();
+            List<Object[]> friends = new ArrayList<>();
+            for (int i = 1; i <= USERS; i++) {
+                users.add(new Object[]{LocalDate.of(1990, 1, 1)});
+                for (int j = 1; j <= 10; j++) {
+                    likes.add(new Object[]{i, (i * 7 + j * 13) % FILMS + 1});
+                    friends.add(new Object[]{i, (i + j * 11) % USERS + 1});
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO Users (login, name, email, birthday) " +
+                    "VALUES ('login', 'name', 'a@b.c', ?)", users);
+            jdbcTemplate.batchUpdate("INSERT INTO Film_like (user_id, film_id) VALUES (?, ?)", likes);
+            jdbcTemplate.batchUpdate("INSERT INTO Friendship (user_id, friend_id, status) " +
+                    "VALUES (?, ?, 'ACCEPTED')", friends);
+            jdbcTemplate.execute("ANALYZE");
+        }
+        return new ExplainingJdbcTemplate(dataSource);
+    }
+
+    private interface StorageCall<T> {
+        void run(T storage);
+    }
+
+    private static class ExplainingJdbcTemplate extends JdbcTemplate {
+        private final List<String> plans = new ArrayList<>();
+
+        private ExplainingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public <T> T query(PreparedStatementCreator psc, PreparedStatementSetter pss, ResultSetExtractor<T> rse) {
+            String sql = ((SqlProvider) psc).getSql();
+            plans.add(super.query(connection -> connection.prepareStatement("EXPLAIN " + sql), pss, rs -> {
+                rs.next();
+                return rs.getString(1);
+            }));
+            return super.query(psc, pss, rse);
+        }
+    }
+}
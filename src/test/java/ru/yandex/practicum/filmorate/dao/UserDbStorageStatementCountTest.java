@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.metrics.StatementBudget;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MPA;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class UserDbStorageStatementCountTest {
+    private static final long USER_ID = 1L;
+    private static final long OTHER_ID = 12L;
+
+    private final UserDbStorage userDbStorage;
+    private final FilmDbStorage filmDbStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void createUsers() {
+        for (int i = 0; i < 12; i++) {
+            userDbStorage.create(makeUser(i));
+        }
+        for (long friendId = 2; friendId <= 11; friendId++) {
+            userDbStorage.addFriend(USER_ID, friendId);
+            userDbStorage.addFriend(friendId, USER_ID);
+            if (friendId % 2 == 1) {
+                userDbStorage.addFriend(OTHER_ID, friendId);
+            }
+        }
+        for (int i = 1; i <= 2; i++) {
+            filmDbStorage.create(Film.builder().name("Name" + i).description("Description" + i)
+                    .releaseDate(LocalDate.of(2000, 1, i)).duration(100L)
+                    .mpa(MPA.builder().id(1).build()).build());
+        }
+        filmDbStorage.addLike(1L, USER_ID);
+        filmDbStorage.addLike(2L, USER_ID);
+        filmDbStorage.addLike(2L, 2L);
+    }
+
+    @Test
+    @StatementBudget(value = 1, exact = true)
+    public void getFriendsRunsFixedNumberOfStatements() {
+        List<User> friends = userDbStorage.getFriends(USER_ID);
+
+        assertThat(friends.size(), is(10));
+        assertThat(friends.get(0).getFriends().contains(USER_ID), is(true));
+    }
+
+    @Test
+    @StatementBudget(value = 1, exact = true)
+    public void findUserByIdDoesNotLoadFriendsRecursively() {
+        User found = userDbStorage.findUserById(USER_ID);
+
+        assertThat(found.getFriends().size(), is(10));
+        assertThat(found.getFilmsLike(), is(Set.of(1L, 2L)));
+    }
+
+    @Test
+    @StatementBudget(value = 1, exact = true)
+    public void getCommonFriendsRunsSingleStatement() {
+        List<User> common = userDbStorage.getCommonFriends(USER_ID, OTHER_ID);
+
+        assertThat(common.size(), is(5));
+        assertThat(common.get(0).getId(), is(3L));
+    }
+
+    @Test
+    @StatementBudget(value = 1, exact = true)
+    public void getUsersLoadsLikesAndFriendsWithoutPerRowQueries() {
+        List<User> users = userDbStorage.getUsers();
+
+        assertThat(users.size(), is(12));
+        assertThat(users.get(1).getFriends().contains(USER_ID), is(true));
+        assertThat(users.get(0).getFilmsLike(), is(Set.of(1L, 2L)));
+        assertThat(users.get(1).getFilmsLike(), is(Set.of(2L)));
+        assertThat(users.get(2).getFilmsLike().isEmpty(), is(true));
+    }
+
+    @Test
+    @StatementBudget(value = 2, exact = true)
+    public void existsAllChecksSeveralUsersInOneStatement() {
+        assertThat(userDbStorage.existsAll(List.of(USER_ID, OTHER_ID)), is(true));
+        assertThat(userDbStorage.existsAll(List.of(USER_ID, 100L)), is(false));
+    }
+
+    @Test
+    @StatementBudget(value = 1, exact = true)
+    public void friendCountIsAnsweredFromGraphAndSuggestionsRunSingleStatement() {
+        List<User> suggestions = userDbStorage.getFriendSuggestions(OTHER_ID, 10);
+
+        assertThat(userDbStorage.getFriendsCount(USER_ID), is(10));
+        assertThat(suggestions.size(), is(1));
+        assertThat(suggestions.get(0).getId(), is(USER_ID));
+    }
+
+    @Test
+    @StatementBudget(value = 2, exact = true)
+    public void friendshipGraphIsLoadedFromStoredRowsInOneStatement() {
+        UserDbStorage restarted = new UserDbStorage(jdbcTemplate);
+        restarted.loadFriendships();
+
+        assertThat(restarted.getFriendsCount(USER_ID), is(10));
+        assertThat(restarted.getFriendsCount(OTHER_ID), is(5));
+        assertThat(restarted.getCommonFriends(USER_ID, OTHER_ID).size(), is(5));
+    }
+
+    @Test
+    @StatementBudget(value = 0, exact = true)
+    public void userWithoutFriendsNeedsNoStatements() {
+        assertThat(userDbStorage.getFriends(100L).isEmpty(), is(true));
+        assertThat(userDbStorage.getCommonFriends(OTHER_ID, 2L).isEmpty(), is(true));
+    }
+
+    private User makeUser(int i) {
+        return User.builder().email("user" + i + "@mail.com").name("UserName" + i)
+                .birthday(LocalDate.of(1990, 1, 1)).login("UserLogin" + i).build();
+    }
+}
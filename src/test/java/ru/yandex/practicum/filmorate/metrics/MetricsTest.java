@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MetricsTest {
+    private final MockMvc mockMvc;
+    private final MeterRegistry registry;
+
+    @Test
+    public void requestsRecordStatementCountsAndStorageTimings() throws Exception {
+        mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"user@mail.ru\",\"login\":\"login\",\"birthday\":\"1990-01-01\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/users/1")).andExpect(status().isOk());
+
+        DistributionSummary statements = registry.get("filmorate.http.jdbc.statements")
+                .tag("method", "GET").tag("uri", "/users/{id}").summary();
+        assertThat(statements.count(), is(2L));
+        assertThat(statements.totalAmount(), is(2.0));
+        assertThat(registry.get("filmorate.storage").tag("storage", "UserDbStorage")
+                .tag("method", "findUserById").tag("exception", "none").timer().count(), is(2L));
+
+        mockMvc.perform(get("/users/100")).andExpect(status().isNotFound());
+        assertThat(registry.get("filmorate.storage").tag("method", "findUserById")
+                .tag("exception", "NotFoundException").timer().count(), is(1L));
+    }
+
+    @Test
+    public void filmCacheAndPrometheusEndpointAreExposed() throws Exception {
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Name\",\"description\":\"Description\",\"releaseDate\":\"2000-01-01\","
+                                + "\"duration\":100,\"mpa\":{\"id\":1}}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/films/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/films/1")).andExpect(status().isOk());
+
+        assertThat(registry.get("cache.gets").tag("cache", "films").tag("result", "hit")
+                .functionCounter().count(), is(1.0));
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("filmorate_http_jdbc_statements")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"films\"")))
+                .andReturn().getResponse().getContentAsString();
+        List<String> storageBuckets = scrape.lines()
+                .filter(line -> line.startsWith("filmorate_storage_seconds_bucket{")
+                        && line.contains("method=\"findFilmById\"") && line.contains("storage=\"FilmDbStorage\""))
+                .collect(Collectors.toList());
+        assertThat(storageBuckets.size(), is(5));
+        assertThat(storageBuckets.get(1), containsString("le=\"0.025\""));
+    }
+}
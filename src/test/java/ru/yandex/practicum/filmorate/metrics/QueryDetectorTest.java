@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.Is.is;
+
+class QueryDetectorTest {
+
+    @Test
+    public void shapeIgnoresLiteralsAndParameterLists() {
+        assertThat(StatementLog.shapeOf("SELECT *\n  FROM users WHERE user_id IN (?, ?,?) AND name = 'O''Neil'"),
+                is("SELECT * FROM users WHERE user_id IN (?, ...) AND name = ?"));
+        assertThat(StatementLog.shapeOf("SELECT film_id FROM film_like WHERE user_id = 42"),
+                is("SELECT film_id FROM film_like WHERE user_id = ?"));
+    }
+
+    @Test
+    public void repeatedAndSlowStatementsAreReported() {
+        QueryDetector detector = new QueryDetector(true, 3, Duration.ofMillis(50));
+        StatementLog statementLog = new StatementLog(null);
+        for (int i = 1; i <= 4; i++) {
+            statementLog.statementExecuted("SELECT * FROM users WHERE user_id = " + i, 1_000);
+        }
+        statementLog.statementExecuted("SELECT * FROM film", Duration.ofMillis(80).toNanos());
+
+        List<String> problems = detector.inspect("UserController.getFriendsUser", statementLog);
+
+        assertThat(problems.size(), is(2));
+        assertThat(problems.get(0), containsString("UserController.getFriendsUser: запрос выполнен 4 раз"));
+        assertThat(problems.get(1), containsString("медленный запрос, 80 мс: SELECT * FROM film"));
+    }
+
+    @Test
+    public void disabledDetectorReportsNothing() {
+        StatementLog statementLog = new StatementLog(null);
+        for (int i = 0; i < 10; i++) {
+            statementLog.statementExecuted("SELECT 1", 1_000);
+        }
+
+        assertThat(new QueryDetector(false, 3, Duration.ofMillis(50)).inspect("test", statementLog).isEmpty(),
+                is(true));
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.stream.Collectors;
+
+public class StatementBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        statementCounter(context).begin();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        StatementLog statementLog = statementCounter(context).end();
+        StatementBudget budget = AnnotationSupport
+                .findAnnotation(context.getRequiredTestMethod(), StatementBudget.class)
+                .orElseThrow();
+        int count = statementLog.getCount();
+        if (budget.exact() ? count != budget.value() : count > budget.value()) {
+            String shapes = statementLog.getShapes().stream()
+                    .map(shape -> shape.getExecutions() + " x " + shape.getSql())
+                    .collect(Collectors.joining("\n"));
+            String message = budget.exact() ? "Ожидалось SQL-запросов: %2$d, выполнено %1$d%n%3$s"
+                    : "Превышен бюджет SQL-запросов: %d при допустимых %d%n%s";
+            throw new AssertionFailedError(String.format(message, count, budget.value(), shapes),
+                    budget.value(), count);
+        }
+    }
+
+    private JdbcStatementCounter statementCounter(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context).getBean(JdbcStatementCounter.class);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.testkit.engine.EngineTestKit;
+import org.junit.platform.testkit.engine.Events;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.core.Is.is;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+class StatementBudgetExtensionTest {
+
+    @Test
+    public void testsOutsideTheirBudgetFail() {
+        Events tests = EngineTestKit.engine("junit-jupiter")
+                .selectors(selectClass(BudgetCases.class))
+                .execute()
+                .testEvents();
+
+        tests.assertStatistics(stats -> stats.started(3).succeeded(1).failed(2));
+        List<String> messages = tests.failed().stream()
+                .map(event -> event.getRequiredPayload(TestExecutionResult.class).getThrowable().orElseThrow())
+                .map(Throwable::getMessage)
+                .sorted()
+                .collect(Collectors.toList());
+        assertThat(messages.size(), is(2));
+        assertThat(messages.get(0), startsWith("Ожидалось SQL-запросов: 2, выполнено 1"));
+        assertThat(messages.get(1), startsWith("Превышен бюджет SQL-запросов: 2 при допустимых 1"));
+    }
+
+    @SpringBootTest
+    @AutoConfigureTestDatabase
+    @RequiredArgsConstructor(onConstructor_ = @Autowired)
+    static class BudgetCases {
+        private final UserDbStorage userDbStorage;
+
+        @Test
+        @StatementBudget(1)
+        public void withinBudget() {
+            userDbStorage.getUsers();
+        }
+
+        @Test
+        @StatementBudget(1)
+        public void overBudget() {
+            userDbStorage.getUsers();
+            userDbStorage.getUsers();
+        }
+
+        @Test
+        @StatementBudget(value = 2, exact = true)
+        public void belowExactCount() {
+            userDbStorage.getUsers();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.service.film;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MPA;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.InMemoryGenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.InMemoryMpaStorage;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+public class FilmSearchIndexTest {
+    private static final Set<String> ALL_FIELDS = Set.of(FilmSearchIndex.TITLE, FilmSearchIndex.DESCRIPTION);
+
+    private InMemoryFilmStorage filmStorage;
+    private FilmSearchIndex searchIndex;
+
+    @BeforeEach
+    void beforeEach() {
+        filmStorage = new InMemoryFilmStorage(new InMemoryMpaStorage(), new InMemoryGenreStorage());
+        create("Ёлки", "Новогодняя комедия");
+        create("Комедия положений", "Фильм о ёлке");
+        searchIndex = new FilmSearchIndex(filmStorage);
+    }
+
+    @Test
+    void tokensAreLowercasedAndYoNormalized() {
+        Assertions.assertEquals(Set.of("елки", "2", "new", "year"), FilmSearchIndex.tokenize("ЁЛКИ-2: New Year!"));
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatches() {
+        Assertions.assertEquals(Map.of(1L, 2, 2L, 1), searchIndex.search("елк", ALL_FIELDS));
+        Assertions.assertEquals(Map.of(1L, 3), searchIndex.search("елки", ALL_FIELDS));
+        Assertions.assertEquals(Map.of(2L, 3, 1L, 2), searchIndex.search("КОМЕДИЯ", ALL_FIELDS));
+        Assertions.assertEquals(Map.of(1L, 2), searchIndex.search("комедия", Set.of(FilmSearchIndex.DESCRIPTION)));
+    }
+
+    @Test
+    void updatedFilmsReplaceTheirOldTerms() {
+        Film film = filmStorage.findFilmById(1L);
+        film.setName("Ирония судьбы");
+        searchIndex.put(film);
+
+        Assertions.assertEquals(Map.of(2L, 1), searchIndex.search("елк", ALL_FIELDS));
+        Assertions.assertEquals(Map.of(1L, 3), searchIndex.search("ирония", ALL_FIELDS));
+    }
+
+    @Test
+    void rebuildPicksUpFilmsAddedBehindTheIndex() {
+        create("Ёлки 2", "Продолжение");
+        Assertions.assertTrue(searchIndex.search("продолжение", ALL_FIELDS).isEmpty());
+
+        Assertions.assertEquals(3, searchIndex.rebuild());
+        Assertions.assertEquals(Map.of(3L, 2), searchIndex.search("продолжение", ALL_FIELDS));
+    }
+
+    @Test
+    void limitKeepsTopScoresWithTiesAtCutoff() {
+        create("Ёлки 2", "Продолжение");
+        searchIndex.rebuild();
+
+        Assertions.assertEquals(Map.of(1L, 2, 3L, 2), searchIndex.search("елк", ALL_FIELDS, 1));
+        Assertions.assertEquals(Map.of(1L, 2, 3L, 2, 2L, 1), searchIndex.search("елк", ALL_FIELDS, 3));
+        Assertions.assertEquals(Map.of(2L, 3), searchIndex.search("комедия", ALL_FIELDS, 1));
+    }
+
+    private void create(String name, String description) {
+        filmStorage.create(Film.builder().name(name).description(description)
+                .releaseDate(LocalDate.of(2010, 12, 16)).duration(90L)
+                .mpa(MPA.builder().id(1).build()).build());
+    }
+}
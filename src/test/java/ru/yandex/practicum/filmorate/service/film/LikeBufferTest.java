@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.service.film;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MPA;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.InMemoryGenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.InMemoryMpaStorage;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LikeBufferTest {
+    private InMemoryFilmStorage filmStorage;
+    private LikeBuffer likeBuffer;
+    private long filmId;
+
+    @BeforeEach
+    void beforeEach() {
+        filmStorage = new InMemoryFilmStorage(new InMemoryMpaStorage(), new InMemoryGenreStorage());
+        likeBuffer = new LikeBuffer(filmStorage, true, 4);
+        filmId = filmStorage.create(Film.builder().name("Name").description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1)).duration(100L)
+                .mpa(MPA.builder().id(1).build()).build()).getId();
+    }
+
+    @Test
+    void likesAreDeduplicatedAndFlushed() {
+        likeBuffer.addLike(filmId, 1L);
+        likeBuffer.addLike(filmId, 1L);
+        likeBuffer.addLike(filmId, 2L);
+        Assertions.assertEquals(Map.of(filmId, 2), likeBuffer.getPendingDeltas());
+        Assertions.assertEquals(0, filmStorage.findFilmById(filmId).getRate());
+
+        likeBuffer.flush();
+
+        Assertions.assertEquals(2, filmStorage.findFilmById(filmId).getRate());
+        Assertions.assertTrue(likeBuffer.getPendingDeltas().isEmpty());
+    }
+
+    @Test
+    void lastOperationWinsOverStoredLike() {
+        filmStorage.addLike(filmId, 1L);
+        likeBuffer.addLike(filmId, 1L);
+        Assertions.assertTrue(likeBuffer.getPendingDeltas().isEmpty());
+        likeBuffer.removeLike(filmId, 1L);
+        Assertions.assertEquals(Map.of(filmId, -1), likeBuffer.getPendingDeltas());
+
+        likeBuffer.flush();
+
+        Assertions.assertEquals(0, filmStorage.findFilmById(filmId).getRate());
+    }
+
+    @Test
+    void lastOperationWinsOverAbsentLike() {
+        likeBuffer.removeLike(filmId, 1L);
+        Assertions.assertTrue(likeBuffer.getPendingDeltas().isEmpty());
+        likeBuffer.addLike(filmId, 1L);
+        Assertions.assertEquals(Map.of(filmId, 1), likeBuffer.getPendingDeltas());
+
+        likeBuffer.flush();
+
+        Assertions.assertEquals(1, filmStorage.findFilmById(filmId).getRate());
+    }
+
+    @Test
+    void failedFlushIsRetriedWithoutOverwritingNewerOperations() {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        InMemoryFilmStorage failingStorage = new InMemoryFilmStorage(new InMemoryMpaStorage(),
+                new InMemoryGenreStorage()) {
+            @Override
+            public void applyLikes(long filmId, Collection<Long> likedBy, Collection<Long> unlikedBy) {
+                if (failing.get()) {
+                    failing.set(false);
+                    likeBuffer.removeLike(filmId, 2L);
+                    throw new IllegalStateException("Недоступно");
+                }
+                super.applyLikes(filmId, likedBy, unlikedBy);
+            }
+        };
+        likeBuffer = new LikeBuffer(failingStorage, true, 4);
+        long id = failingStorage.create(Film.builder().name("Name").description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1)).duration(100L)
+                .mpa(MPA.builder().id(1).build()).build()).getId();
+        likeBuffer.addLike(id, 1L);
+        likeBuffer.addLike(id, 2L);
+
+        likeBuffer.flush();
+
+        Assertions.assertEquals(0, failingStorage.findFilmById(id).getRate());
+        Assertions.assertEquals(Map.of(id, 1), likeBuffer.getPendingDeltas());
+
+        likeBuffer.flush();
+
+        Assertions.assertEquals(1, failingStorage.findFilmById(id).getRate());
+        Assertions.assertArrayEquals(new long[]{1L}, failingStorage.getLikes(id));
+        Assertions.assertTrue(likeBuffer.getPendingDeltas().isEmpty());
+    }
+
+    @Test
+    void nonPositiveStripeCountIsRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LikeBuffer(filmStorage, true, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LikeBuffer(filmStorage, true, -1));
+    }
+}
@@ -0,0 +1,196 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MPA;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.film.FilmService;
+import ru.yandex.practicum.filmorate.service.user.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.genre.InMemoryGenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.InMemoryMpaStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.core.Is.is;
+
+
+@SpringBootTest
+@ActiveProfiles("in-memory")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class InMemoryStorageProfileTest {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    private final ApplicationContext context;
+
+    @Test
+    public void checkInMemoryStoragesAreWired() {
+        assertThat(filmStorage, is(instanceOf(InMemoryFilmStorage.class)));
+        assertThat(userStorage, is(instanceOf(InMemoryUserStorage.class)));
+    }
+
+    @Test
+    public void checkProfileRunsWithoutDatabase() {
+        assertThat(context.getBeanNamesForType(DataSource.class).length, is(0));
+        assertThat(genreStorage, is(instanceOf(InMemoryGenreStorage.class)));
+        assertThat(mpaStorage, is(instanceOf(InMemoryMpaStorage.class)));
+        assertThat(genreStorage.findGenreById(6).getName(), is("Боевик"));
+        assertThat(mpaStorage.getMPAList().size(), is(5));
+    }
+
+    @Test
+    public void checkFriendsAndCommonFriends() {
+        for (int i = 1; i <= 3; i++) {
+            userService.create(User.builder().email("user" + i + "@mail.com").name("UserName" + i)
+                    .birthday(LocalDate.of(1990, 1, i)).login("UserLogin" + i).build());
+        }
+        userService.addFriend(1L, 3L);
+        userService.addFriend(2L, 3L);
+        User user = userService.addFriend(1L, 2L);
+
+        assertThat(user.getFriends(), is(Set.of(2L, 3L)));
+        assertThat(ids(userService.getFriendsUser(1L)), contains(2L, 3L));
+        assertThat(ids(userService.getCommonFriends(1L, 2L)), contains(3L));
+
+        userService.addFriend(3L, 1L);
+        assertThat(ids(userService.getFriendSuggestions(2L, 5)), contains(1L));
+
+        userService.deleteFriend(1L, 3L);
+        assertThat(ids(userService.getCommonFriends(1L, 2L)).isEmpty(), is(true));
+    }
+
+    @Test
+    public void checkLikesAndPopular() {
+        for (int i = 1; i <= 3; i++) {
+            filmService.create(Film.builder().name("Name" + i).description("Description" + i)
+                    .releaseDate(LocalDate.of(2000, 1, i)).duration(100L)
+                    .mpa(MPA.builder().id(1).build()).build());
+            userService.create(User.builder().email("user" + i + "@mail.com").name("UserName" + i)
+                    .birthday(LocalDate.of(1990, 1, i)).login("UserLogin" + i).build());
+        }
+        filmService.addFilmLike(2L, 1L);
+        filmService.addFilmLike(2L, 2L);
+        filmService.addFilmLike(2L, 2L);
+        filmService.addFilmLike(3L, 1L);
+
+        List<Film> popular = filmService.getPopular(2, null, null);
+        assertThat(ids(popular), contains(2L, 3L));
+        assertThat(popular.get(0).getRate(), is(2));
+        assertThat(popular.get(0).getMpa().getName(), is("G"));
+        assertThat(userService.get(1L).getFilmsLike(), is(Set.of(2L, 3L)));
+
+        filmService.removeFilmLike(2L, 1L);
+        filmService.removeFilmLike(2L, 2L);
+        assertThat(ids(filmService.getPopular(3, null, null)), contains(3L, 1L, 2L));
+    }
+
+    @Test
+    public void checkUpdateDoesNotResetLikes() {
+        Film film = filmService.create(Film.builder().name("Name").description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1)).duration(100L).rate(5)
+                .mpa(MPA.builder().id(1).build()).build());
+        userService.create(User.builder().email("user@mail.com").login("login")
+                .birthday(LocalDate.of(1990, 1, 1)).build());
+        assertThat(film.getRate(), is(0));
+        filmService.addFilmLike(1L, 1L);
+
+        Film updated = filmService.update(film.toBuilder().name("NameEdit").rate(0).build());
+        assertThat(updated.getRate(), is(1));
+        assertThat(filmService.findFilmById(1L).getRate(), is(1));
+        assertThat(filmService.getPopular(1, null, null).get(0).getRate(), is(1));
+    }
+
+    @Test
+    public void checkRecommendationsFromUsersWithOverlappingLikes() {
+        for (int i = 1; i <= 3; i++) {
+            filmService.create(Film.builder().name("Name" + i).description("Description" + i)
+                    .releaseDate(LocalDate.of(2000, 1, i)).duration(100L)
+                    .mpa(MPA.builder().id(1).build()).build());
+        }
+        for (int i = 1; i <= 2; i++) {
+            userService.create(User.builder().email("user" + i + "@mail.com").login("login" + i)
+                    .birthday(LocalDate.of(1990, 1, i)).build());
+        }
+        filmService.addFilmLike(2L, 1L);
+        filmService.addFilmLike(3L, 1L);
+        filmService.addFilmLike(2L, 2L);
+        filmService.addFilmLike(1L, 2L);
+
+        assertThat(ids(userService.getRecommendations(1L, 10)), contains(1L));
+        assertThat(ids(userService.getRecommendations(2L, 10)), contains(3L));
+    }
+
+    @Test
+    public void checkPopularFilmsFilteredByGenreAndYear() {
+        int[][] specs = {{2000, 1}, {2001, 1, 2}, {2001, 2}};
+        for (int[] spec : specs) {
+            List<Genre> genres = new ArrayList<>();
+            for (int i = 1; i < spec.length; i++) {
+                genres.add(new Genre(spec[i], null));
+            }
+            filmService.create(Film.builder().name("Name").description("Description")
+                    .releaseDate(LocalDate.of(spec[0], 6, 1)).duration(100L).genres(genres)
+                    .mpa(MPA.builder().id(1).build()).build());
+        }
+        for (int i = 1; i <= 2; i++) {
+            userService.create(User.builder().email("user" + i + "@mail.com").login("login" + i)
+                    .birthday(LocalDate.of(1990, 1, i)).build());
+        }
+        filmService.addFilmLike(3L, 1L);
+        filmService.addFilmLike(3L, 2L);
+        filmService.addFilmLike(2L, 1L);
+
+        assertThat(ids(filmService.getPopular(10, 1, null)), contains(2L, 1L));
+        assertThat(ids(filmService.getPopular(10, null, 2001)), contains(3L, 2L));
+        assertThat(ids(filmService.getPopular(1, 2, 2001)), contains(3L));
+        assertThat(ids(filmService.getPopular(10, 1, 2000)), contains(1L));
+        assertThat(filmService.getPopular(10, 3, null).isEmpty(), is(true));
+    }
+
+    @Test
+    public void checkSearchRanksByRelevanceThenRate() {
+        String[] names = {"Ёлки", "Ёлки 2", "Новогодний фильм"};
+        for (String name : names) {
+            filmService.create(Film.builder().name(name).description("Про ёлки")
+                    .releaseDate(LocalDate.of(2010, 12, 16)).duration(90L)
+                    .mpa(MPA.builder().id(1).build()).build());
+        }
+        userService.create(User.builder().email("user@mail.com").login("login")
+                .birthday(LocalDate.of(1990, 1, 1)).build());
+        filmService.addFilmLike(2L, 1L);
+
+        assertThat(ids(filmService.search("ЕЛКИ", "title,description", 10)), contains(2L, 1L, 3L));
+        assertThat(ids(filmService.search("елки", "title", 1)), contains(2L));
+    }
+
+    private static List<Long> ids(List<?> items) {
+        return items.stream()
+                .map(item -> item instanceof Film ? ((Film) item).getId() : ((User) item).getId())
+                .collect(Collectors.toList());
+    }
+}
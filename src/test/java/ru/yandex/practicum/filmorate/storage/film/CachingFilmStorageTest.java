@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MPA;
+import ru.yandex.practicum.filmorate.storage.genre.InMemoryGenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.InMemoryMpaStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+public class CachingFilmStorageTest {
+    private CachingFilmStorage storage;
+    private long filmId;
+
+    @BeforeEach
+    void beforeEach() {
+        storage = new CachingFilmStorage(new InMemoryFilmStorage(new InMemoryMpaStorage(), new InMemoryGenreStorage()),
+                100, Duration.ofMinutes(1));
+        filmId = storage.create(Film.builder().name("Name").description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1)).duration(100L)
+                .mpa(MPA.builder().id(1).build()).build()).getId();
+    }
+
+    @Test
+    void repeatedReadsHitCache() {
+        storage.findFilmById(filmId);
+        storage.findFilmById(filmId);
+        storage.findFilmById(filmId);
+        Assertions.assertEquals(1, storage.getStats().missCount());
+        Assertions.assertEquals(2, storage.getStats().hitCount());
+    }
+
+    @Test
+    void likeInvalidatesCachedFilm() {
+        Assertions.assertEquals(0, storage.findFilmById(filmId).getRate());
+        storage.addLike(filmId, 1L);
+        Assertions.assertEquals(1, storage.findFilmById(filmId).getRate());
+        Assertions.assertEquals(2, storage.getStats().missCount());
+    }
+
+    @Test
+    void returnedFilmDoesNotLeakIntoCache() {
+        storage.findFilmById(filmId).setName("Changed");
+        Assertions.assertEquals("Name", storage.findFilmById(filmId).getName());
+    }
+}
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MPA;
+import ru.yandex.practicum.filmorate.storage.genre.InMemoryGenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.InMemoryMpaStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+class InMemoryFilmStorageTest {
+    private static final int FILMS = 200;
+    private static final int WRITERS = 4;
+
+    @Test
+    void popularNeverRepeatsFilmWhileLikesChange() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage(new InMemoryMpaStorage(), new InMemoryGenreStorage());
+        for (int i = 1; i <= FILMS; i++) {
+            storage.create(Film.builder().name("Name" + i).description("Description")
+                    .releaseDate(LocalDate.of(2000, 1, 1)).duration(100L)
+                    .mpa(MPA.builder().id(1).build()).build());
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                long userId = w + 1;
+                writers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        for (long filmId = 1; filmId <= FILMS; filmId++) {
+                            storage.addLike(filmId, userId);
+                        }
+                        for (long filmId = 1; filmId <= FILMS; filmId++) {
+                            storage.removeLike(filmId, userId);
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < 2_000; i++) {
+                List<Long> ids = storage.getPopular(FILMS, null, 2000).stream()
+                        .map(Film::getId)
+                        .collect(Collectors.toList());
+                Assertions.assertEquals(ids.size(), new HashSet<>(ids).size(), "Повтор фильма в топе: " + ids);
+            }
+            running.set(false);
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            running.set(false);
+            executor.shutdown();
+        }
+        Assertions.assertEquals(FILMS, storage.getPopular(FILMS, null, null).size());
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+class FriendshipGraphTest {
+    private FriendshipGraph graph;
+
+    @BeforeEach
+    public void setUp() {
+        graph = new FriendshipGraph();
+        addFriends(1L, 2L, 3L, 5L);
+        addFriends(2L, 1L, 3L);
+    }
+
+    @Test
+    public void degreeCountsFriends() {
+        assertThat(graph.degree(1L), is(3));
+        assertThat(graph.degree(4L), is(0));
+    }
+
+    @Test
+    public void addAndRemoveKeepFriendsSortedAndIgnoreRepeats() {
+        assertThat(graph.addFriend(1L, 4L), is(true));
+        assertThat(graph.addFriend(1L, 4L), is(false));
+        assertThat(graph.friends(1L), is(new long[]{2L, 3L, 4L, 5L}));
+
+        assertThat(graph.removeFriend(1L, 2L), is(true));
+        assertThat(graph.removeFriend(1L, 2L), is(false));
+        assertThat(graph.friends(1L), is(new long[]{3L, 4L, 5L}));
+    }
+
+    @Test
+    public void commonFriendsIntersectSortedAdjacency() {
+        graph.addFriend(2L, 5L);
+
+        assertThat(graph.commonFriends(1L, 2L), is(new long[]{3L, 5L}));
+        assertThat(graph.commonFriends(1L, 7L), is(new long[0]));
+    }
+
+    @Test
+    public void suggestFriendsRanksByMutualFriendsAndSkipsExistingOnes() {
+        graph = new FriendshipGraph();
+        addFriends(1L, 2L, 3L, 4L);
+        addFriends(2L, 1L, 5L, 6L);
+        addFriends(3L, 4L, 5L, 6L, 7L);
+        addFriends(4L, 3L, 6L);
+
+        assertThat(graph.suggestFriends(1L, 10), is(new long[]{6L, 5L, 7L}));
+        assertThat(graph.suggestFriends(1L, 2), is(new long[]{6L, 5L}));
+        assertThat(graph.suggestFriends(8L, 10), is(new long[0]));
+    }
+
+    private void addFriends(long userId, long... friendIds) {
+        for (long friendId : friendIds) {
+            graph.addFriend(userId, friendId);
+        }
+    }
+}